@@ -869,6 +869,12 @@ build_site() {
   if [[ -n "${RECIPE_BOOK_BASE_URL:-}" ]]; then
     site_args+=(--recipe-book-base-url "${RECIPE_BOOK_BASE_URL}")
   fi
+  if [[ -n "${SITE_PARALLEL_LOCALES:-}" ]]; then
+    site_args+=(--parallel-locales "${SITE_PARALLEL_LOCALES}")
+  fi
+  if [[ "${SITE_STREAM_ENTRIES:-0}" == "1" ]]; then
+    site_args+=(--stream-entries)
+  fi
   java -jar "$site_jar" -e "$EXPORT_GUIDE" -o "$SITE_OUTPUT_DIR" "${site_args[@]}"
 
   if [[ -d "${EXPORT_ROOT}/emi" ]]; then
@@ -0,0 +1,52 @@
+package team.terrafirmgreg.fieldguide;
+
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookPage;
+import team.terrafirmgreg.fieldguide.data.patchouli.page.IPageWithText;
+import team.terrafirmgreg.fieldguide.export.ExportBundle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guide-export fixture shared by the benchmarks: {@code src/test/resources/bench-export}, a small
+ * export with the same layout as the real one (book, lang, models, blockstates, icon atlas).
+ * The Gradle {@code jmh} task passes its absolute path as {@code -Dfieldguide.benchExport}, since
+ * forked benchmark JVMs do not necessarily run from the project directory.
+ */
+public final class BenchFixture {
+
+    public static final String PROPERTY = "fieldguide.benchExport";
+
+    private BenchFixture() {
+    }
+
+    public static Path exportRoot() {
+        return Paths.get(System.getProperty(PROPERTY, "src/test/resources/bench-export")).toAbsolutePath().normalize();
+    }
+
+    public static ExportBundle open() throws IOException {
+        return ExportBundle.open(exportRoot());
+    }
+
+    public static Book loadBook(ExportBundle bundle) throws IOException {
+        return bundle.getBooks().loadBook(Constants.FIELD_GUIDE);
+    }
+
+    /** Raw Patchouli text of every text-bearing page, in book order. */
+    public static List<String> pageTexts(Book book) {
+        List<String> texts = new ArrayList<>();
+        for (BookEntry entry : book.getEntries()) {
+            for (BookPage page : entry.getPages()) {
+                if (page instanceof IPageWithText withText && withText.getText() != null) {
+                    texts.add(withText.getText());
+                }
+            }
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,50 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.data.minecraft.blockmodel.BlockModel;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blockstate lookup and model parsing: {@code cold} uses a fresh loader (empty model cache) per call,
+ * i.e. the first multiblock of a build; {@code warm} is every later lookup of the same state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExportModelLoaderBenchmark {
+
+    @Param({"minecraft:oak_log[axis=x]", "minecraft:furnace[facing=east,lit=false]", "minecraft:stone_slab[type=top]"})
+    public String blockState;
+
+    private Path root;
+    private TagMemberIndex tagMembers;
+    private ExportModelLoader warmLoader;
+
+    @Setup
+    public void setup() {
+        root = BenchFixture.exportRoot();
+        tagMembers = TagMemberIndex.load(root);
+        warmLoader = new ExportModelLoader(root, tagMembers);
+        warmLoader.loadBlockModelWithState(blockState);
+    }
+
+    @Benchmark
+    public BlockModel cold() {
+        return new ExportModelLoader(root, tagMembers).loadBlockModelWithState(blockState);
+    }
+
+    @Benchmark
+    public BlockModel warm() {
+        return warmLoader.loadBlockModelWithState(blockState);
+    }
+}
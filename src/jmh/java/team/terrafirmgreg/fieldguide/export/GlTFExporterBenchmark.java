@@ -0,0 +1,69 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.render.BlockStateModelBuilder;
+import team.terrafirmgreg.fieldguide.render.MultiblockSceneBuilder;
+import team.terrafirmgreg.fieldguide.render3d.scene.Node;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** GLB export of a bloomery-sized multiblock scene, with and without the packed texture atlas. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GlTFExporterBenchmark {
+
+    private static final String[][] PATTERN = {
+            {"BBBBB", "BGGGB", "BGGGB", "BGGGB", "BBBBB"},
+            {"BBBBB", "B   B", "B F B", "B   B", "BBBBB"},
+            {"SSSSS", "SLLLS", "SL0LS", "SLLLS", "SSSSS"},
+    };
+    private static final Map<String, String> MAPPING = Map.of(
+            "B", "minecraft:bricks",
+            "G", "minecraft:glass",
+            "F", "minecraft:furnace[facing=east,lit=true]",
+            "S", "minecraft:stone_slab[type=bottom]",
+            "L", "minecraft:oak_log[axis=x]",
+            "0", "minecraft:cobblestone");
+
+    @Param({"false", "true"})
+    public boolean packAtlas;
+
+    private Node scene;
+    private GlTFExporter exporter;
+    private Path outputDir;
+    private String output;
+
+    @Setup
+    public void setup() throws Exception {
+        MultiblockSceneBuilder builder = new MultiblockSceneBuilder(
+                new BlockStateModelBuilder(new ExportModelLoader(BenchFixture.exportRoot(), null)));
+        scene = builder.buildMultiblock(PATTERN, MAPPING);
+        exporter = new GlTFExporter().setPackAtlas(packAtlas);
+        outputDir = Files.createTempDirectory("glb-bench");
+        output = outputDir.resolve("bloomery.glb").toString();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(outputDir.toFile());
+    }
+
+    @Benchmark
+    public void export() throws Exception {
+        exporter.export(scene, output);
+    }
+}
@@ -0,0 +1,53 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Icon lookups for every id in the fixture atlas index, plus one miss in ten (falls back to the missing icon). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IconCatalogBenchmark {
+
+    private IconCatalog catalog;
+    private List<String> ids;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        Path root = BenchFixture.exportRoot();
+        catalog = IconCatalog.load(root);
+        Map<String, Object> index = JsonUtils.GSON.fromJson(
+                Files.readString(root.resolve("assets/icons/index.json")), Map.class);
+        ids = new ArrayList<>();
+        int n = 0;
+        for (String id : ((Map<String, Object>) index.get("items")).keySet()) {
+            ids.add(id);
+            if (++n % 10 == 0) {
+                ids.add(id + "_unknown");
+            }
+        }
+    }
+
+    @Benchmark
+    public void resolveAnyItem(Blackhole bh) {
+        for (String id : ids) {
+            bh.consume(catalog.resolveAnyItem(id));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package team.terrafirmgreg.fieldguide.render;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.export.ExportModelLoader;
+import team.terrafirmgreg.fieldguide.render3d.scene.Node;
+
+import java.util.concurrent.TimeUnit;
+
+/** Geometry for one block model with models and materials already cached, as inside a multiblock build. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BaseModelBuilderBenchmark {
+
+    @Param({"minecraft:block/stone", "minecraft:block/furnace", "minecraft:block/oak_log_horizontal", "minecraft:block/stone_slab"})
+    public String modelId;
+
+    private BaseModelBuilder builder;
+
+    @Setup
+    public void setup() {
+        builder = new BaseModelBuilder(new ExportModelLoader(BenchFixture.exportRoot(), null));
+        builder.buildModel(modelId);
+    }
+
+    @Benchmark
+    public Node buildModel() {
+        return builder.buildModel(modelId);
+    }
+}
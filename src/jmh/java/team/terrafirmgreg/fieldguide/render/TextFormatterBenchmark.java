@@ -0,0 +1,67 @@
+package team.terrafirmgreg.fieldguide.render;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.export.ExportBundle;
+import team.terrafirmgreg.fieldguide.localization.Language;
+import team.terrafirmgreg.fieldguide.site.ExportLocalizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Formats every text page of the fixture book, as {@code PageRenderer} does once per page and locale. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextFormatterBenchmark {
+
+    private List<String> texts;
+    private Map<String, String> bookMacros;
+    private MacroExpander macros;
+    private ExportLocalizationManager l10n;
+    private final StringBuilder out = new StringBuilder(1024);
+
+    @Setup
+    public void setup() throws Exception {
+        ExportBundle bundle = BenchFixture.open();
+        Book book = BenchFixture.loadBook(bundle);
+        texts = BenchFixture.pageTexts(book);
+        bookMacros = book.getMacros();
+        macros = MacroExpander.compile(bookMacros);
+        l10n = new ExportLocalizationManager(bundle.getLangs()).forLanguage(Language.EN_US);
+    }
+
+    @Benchmark
+    public void formatText(Blackhole bh) {
+        for (String text : texts) {
+            out.setLength(0);
+            TextFormatter.formatText(out, text, l10n, macros);
+            bh.consume(out.length());
+        }
+    }
+
+    /** Public one-off API: merges and compiles the book macros on every call. */
+    @Benchmark
+    public void expandMacros(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(TextFormatter.expandMacros(text, bookMacros));
+        }
+    }
+
+    /** What the renderers use: macros compiled once per book. */
+    @Benchmark
+    public void expandCompiledMacros(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(macros.expand(text));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import team.terrafirmgreg.fieldguide.BenchFixture;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookPage;
+import team.terrafirmgreg.fieldguide.data.patchouli.page.IPageWithText;
+import team.terrafirmgreg.fieldguide.export.ExportBundle;
+import team.terrafirmgreg.fieldguide.localization.Language;
+import team.terrafirmgreg.fieldguide.render.MacroExpander;
+import team.terrafirmgreg.fieldguide.render.TextFormatter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code entry.ftl} for every entry of the fixture book (sidebar with all categories and entries),
+ * written to a temporary site directory. Entry HTML is formatted once in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SiteRendererBenchmark {
+
+    private Path outputDir;
+    private SiteRenderer renderer;
+    private final List<BookEntry> entries = new ArrayList<>();
+    private final List<Map<String, Object>> pageData = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        ExportBundle bundle = BenchFixture.open();
+        Book book = BenchFixture.loadBook(bundle);
+        ExportLocalizationManager l10n = new ExportLocalizationManager(bundle.getLangs()).forLanguage(Language.EN_US);
+        MacroExpander macros = MacroExpander.compile(book.getMacros());
+        outputDir = Files.createTempDirectory("site-bench");
+        renderer = new SiteRenderer(l10n, outputDir.toString());
+
+        for (BookCategory category : book.getCategories()) {
+            for (BookEntry entry : category.getEntries()) {
+                StringBuilder html = new StringBuilder();
+                for (BookPage page : entry.getPages()) {
+                    if (page instanceof IPageWithText withText && withText.getText() != null) {
+                        TextFormatter.formatText(html, withText.getText(), l10n, macros);
+                    }
+                }
+                entry.setInnerHtml(html.toString());
+                entries.add(entry);
+                pageData.add(renderer.entryPageData(category, book.getCategories(), entry));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(outputDir.toFile());
+    }
+
+    @Benchmark
+    public void generateEntryPages() throws Exception {
+        for (int i = 0; i < entries.size(); i++) {
+            renderer.generatePage("entry.ftl", entries.get(i).getId() + ".html", pageData.get(i));
+        }
+    }
+}
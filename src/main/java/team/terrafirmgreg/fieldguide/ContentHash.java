@@ -0,0 +1,121 @@
+package team.terrafirmgreg.fieldguide;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Incremental SHA-256 over build inputs. Every value is length-prefixed so
+ * {@code put("ab").put("c")} and {@code put("a").put("bc")} never collide.
+ */
+public final class ContentHash {
+
+    private static final byte[] MISSING = {0};
+    private static final byte[] PRESENT = {1};
+
+    private final MessageDigest digest;
+
+    private ContentHash(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    public static ContentHash sha256() {
+        try {
+            return new ContentHash(MessageDigest.getInstance("SHA-256"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public ContentHash put(String value) {
+        if (value == null) {
+            digest.update(MISSING);
+            return this;
+        }
+        return put(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ContentHash put(byte[] bytes) {
+        digest.update(PRESENT);
+        putLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    public ContentHash put(int value) {
+        putLength(value);
+        return this;
+    }
+
+    /** Sorted by key so map iteration order never changes the hash. */
+    public ContentHash put(Map<String, String> map) {
+        if (map == null) {
+            digest.update(MISSING);
+            return this;
+        }
+        Map<String, String> sorted = new TreeMap<>(map);
+        putLength(sorted.size());
+        sorted.forEach((k, v) -> put(k).put(v));
+        return this;
+    }
+
+    public ContentHash put(InputStream in) throws IOException {
+        digest.update(PRESENT);
+        byte[] buf = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            digest.update(buf, 0, n);
+            total += n;
+        }
+        putLength(total);
+        return this;
+    }
+
+    /** Hashes file bytes, or a marker when the file does not exist. */
+    public ContentHash putFile(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            digest.update(MISSING);
+            return this;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return put(in);
+        }
+    }
+
+    /** Hashes every regular file under {@code root} (relative path + bytes), in path order. */
+    public ContentHash putTree(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return putFile(root);
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        putLength(files.size());
+        for (Path file : files) {
+            put(root.relativize(file).toString().replace('\\', '/'));
+            putFile(file);
+        }
+        return this;
+    }
+
+    public String hex() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void putLength(long length) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (length >>> shift));
+        }
+    }
+}
@@ -2,22 +2,48 @@ package team.terrafirmgreg.fieldguide.asset;
 
 import lombok.Getter;
 
+import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * A resource in an {@link AssetSource}. Holds no open file: {@link #getInputStream()} opens a new
+ * stream on each call, which the caller closes.
+ */
 @Getter
 public class Asset {
     private final String path;
-    private final InputStream inputStream;
     private final AssetSource source;
+    private final Opener opener;
 
-    public Asset(String path, InputStream inputStream, AssetSource source) {
+    public Asset(String path, AssetSource source) {
+        this(path, source, () -> source.getInputStream(path));
+    }
+
+    public Asset(String path, AssetSource source, Opener opener) {
         this.path = path;
-        this.inputStream = inputStream;
         this.source = source;
+        this.opener = opener;
+    }
+
+    /** Opens the resource; close the stream when done (try-with-resources). */
+    public InputStream getInputStream() throws IOException {
+        return opener.open();
+    }
+
+    /** Reads the whole resource and closes it again. */
+    public byte[] readAllBytes() throws IOException {
+        try (InputStream in = opener.open()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Opener {
+        InputStream open() throws IOException;
     }
 
     @Override
     public String toString() {
         return "Asset{source=" + getSource() + ", resourcePath='" + getPath() + "'}";
     }
-}
\ No newline at end of file
+}
@@ -118,12 +118,16 @@ public class BookEntry implements Comparable<BookEntry> {
     private transient String iconCardHtml = "";
 
     private transient AssetSource assetSource;
+    /** Export-relative path of the JSON this entry was read from (localized or EN fallback). */
+    private transient String sourcePath;
 
     // render inner html
     private transient List<String> buffer = new ArrayList<>();
     private transient List<Map<String, String>> searchTree = new ArrayList<>();
     private transient boolean isRendered = false;
     private transient String innerHtml;
+    /** Inputs match the previous build manifest; page rendering and HTML output are skipped. */
+    private transient boolean upToDate = false;
 
     @Override
     public String toString() {
@@ -140,6 +144,7 @@ public class BookEntry implements Comparable<BookEntry> {
 
     public void setAssetSource(String entryPath, Asset asset) {
         this.assetSource = asset.getSource();
+        this.sourcePath = asset.getPath();
 
         String relativePath = asset.getPath().substring(entryPath.length() + 1);
         String entryId = relativePath.substring(0, relativePath.lastIndexOf('.'));
@@ -160,6 +165,17 @@ public class BookEntry implements Comparable<BookEntry> {
         }
     }
 
+    /**
+     * Drops the rendered HTML, search records and page data once the entry page and search index
+     * have been written, so a streaming build only holds the entry being rendered.
+     */
+    public void releaseRendered() {
+        this.buffer = new ArrayList<>();
+        this.searchTree = new ArrayList<>();
+        this.innerHtml = null;
+        this.pages = List.of();
+    }
+
     public void addSearchContent(String content) {
         Map<String, String> searchData = new HashMap<>();
         searchData.put("content", content);
@@ -0,0 +1,151 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Every file and directory under the export's top-level resource roots ({@code assets/},
+ * {@code data/}), found by one walk so existence checks and listings never touch the file system.
+ * A path absent from an indexed root is a definite miss; paths outside those roots, or not in
+ * canonical {@code a/b/c} form, are left to the caller ({@link #covers}).
+ * <p>
+ * The export is read-only while the site builds, so the index is never refreshed.
+ */
+public final class AssetPathIndex {
+
+    static final List<String> ROOTS = List.of("assets", "data");
+
+    private final List<String> roots;
+    /** Relative file paths, sorted, so a directory's files are one contiguous run. */
+    private final String[] files;
+    private final Set<String> fileSet;
+    private final Set<String> directories;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private AssetPathIndex(List<String> roots, String[] files, Set<String> directories) {
+        this.roots = roots;
+        this.files = files;
+        this.fileSet = Set.of(files);
+        this.directories = directories;
+    }
+
+    static AssetPathIndex build(Path exportRoot, List<String> roots) throws IOException {
+        List<String> files = new ArrayList<>();
+        Set<String> directories = new HashSet<>();
+        for (String root : roots) {
+            Path dir = exportRoot.resolve(root);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            // walkFileTree hands over each entry's attributes, so the walk is the only I/O
+            Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) {
+                    directories.add(root + relativize(dir, path));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        files.add(root + relativize(dir, path));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e) {
+                    // dangling link or link cycle: not a readable asset either way
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        String[] sorted = files.toArray(String[]::new);
+        Arrays.sort(sorted);
+        return new AssetPathIndex(roots, sorted, Set.copyOf(directories));
+    }
+
+    private static String relativize(Path dir, Path path) {
+        String relative = dir.relativize(path).toString().replace('\\', '/');
+        return relative.isEmpty() ? "" : "/" + relative;
+    }
+
+    /** Whether the index can answer for {@code path}; if not, the caller probes the file system. */
+    boolean covers(String path) {
+        int slash = path.indexOf('/');
+        String root = slash < 0 ? path : path.substring(0, slash);
+        boolean canonical = roots.contains(root)
+                && !path.endsWith("/")
+                && !path.contains("//")
+                && !path.contains("/.")
+                && path.indexOf('\\') < 0;
+        if (!canonical) {
+            fallbacks.increment();
+        }
+        return canonical;
+    }
+
+    boolean exists(String path) {
+        return count(fileSet.contains(path) || directories.contains(path));
+    }
+
+    boolean isDirectory(String path) {
+        return count(directories.contains(path));
+    }
+
+    /** Files anywhere under {@code dir}, in path order; empty when it is not an indexed directory. */
+    List<String> list(String dir) {
+        if (!count(directories.contains(dir))) {
+            return List.of();
+        }
+        String prefix = dir + "/";
+        int from = Arrays.binarySearch(files, prefix);
+        from = from < 0 ? -from - 1 : from;
+        int to = from;
+        while (to < files.length && files[to].startsWith(prefix)) {
+            to++;
+        }
+        return Arrays.asList(files).subList(from, to);
+    }
+
+    private boolean count(boolean found) {
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    Stats stats() {
+        return new Stats(files.length, directories.size(), hits.sum(), misses.sum(), fallbacks.sum());
+    }
+
+    /**
+     * @param hits      lookups answered positively from the index
+     * @param misses    lookups answered negatively, each one a file system probe that would have failed
+     * @param fallbacks lookups outside the index, still probed on disk
+     */
+    public record Stats(int files, int directories, long hits, long misses, long fallbacks) {
+        public long probesAvoided() {
+            return hits + misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("files=%d dirs=%d hits=%d misses=%d fallbacks=%d probesAvoided=%d",
+                    files, directories, hits, misses, fallbacks, probesAvoided());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A guide-export {@code .zip} (the CI artifact) mounted with the JDK zip file system, so the bundle
+ * is read straight from the archive without extracting it. Only the central directory is read up
+ * front; entries are inflated when opened, and concurrent reads are safe.
+ * <p>
+ * The mount asks for {@code accessMode=readOnly}. Zip providers older than that option (the JDK 17
+ * toolchain's included) ignore it and mount read-write, and then a write under the root would be
+ * flushed into the artifact on {@link #close()}; nothing in the build writes there.
+ * Every export reader works on NIO {@link Path}s, so {@link #root()} is used like an export
+ * directory (including by {@link FsAssetSource}).
+ */
+@Slf4j
+public final class ExportArchive implements Closeable {
+
+    private final FileSystem fileSystem;
+    private final Path root;
+
+    private ExportArchive(FileSystem fileSystem, Path root) {
+        this.fileSystem = fileSystem;
+        this.root = root;
+    }
+
+    public static boolean isArchive(Path exportDir) {
+        return Files.isRegularFile(exportDir) && exportDir.getFileName().toString().toLowerCase().endsWith(".zip");
+    }
+
+    /** Mounts {@code zip}; the export root is the archive root or its single top-level directory. */
+    public static ExportArchive open(Path zip) throws IOException {
+        FileSystem fileSystem = FileSystems.newFileSystem(zip, Map.of("accessMode", "readOnly"));
+        try {
+            Path root = locateRoot(fileSystem.getPath("/"));
+            if (root == null) {
+                throw new IllegalArgumentException("Missing manifest.json in " + zip);
+            }
+            log.info("Reading guide-export from {}{}", zip, root.getNameCount() > 0 ? " (" + root + ")" : "");
+            return new ExportArchive(fileSystem, root);
+        } catch (IOException | RuntimeException e) {
+            fileSystem.close();
+            throw e;
+        }
+    }
+
+    private static Path locateRoot(Path top) throws IOException {
+        if (Files.isRegularFile(top.resolve("manifest.json"))) {
+            return top;
+        }
+        List<Path> dirs;
+        try (Stream<Path> children = Files.list(top)) {
+            dirs = children.filter(Files::isDirectory).toList();
+        }
+        if (dirs.size() == 1 && Files.isRegularFile(dirs.get(0).resolve("manifest.json"))) {
+            return dirs.get(0);
+        }
+        return null;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+}
@@ -3,11 +3,11 @@ package team.terrafirmgreg.fieldguide.export;
 import lombok.Data;
 
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 @Data
 public class ExportAssetStats {
-    private final Set<String> missingTextures = new TreeSet<>();
+    private final Set<String> missingTextures = new ConcurrentSkipListSet<>();
 
     public void addMissingTexture(String id) {
         missingTextures.add(id);
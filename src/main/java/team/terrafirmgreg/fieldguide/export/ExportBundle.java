@@ -1,21 +1,24 @@
 package team.terrafirmgreg.fieldguide.export;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 
 /**
- * Single entry point for opening a guide-export directory.
+ * Single entry point for opening a guide-export directory or {@code .zip} archive.
+ * Close the bundle to release a mounted archive; paths from an archive stop working after that.
  */
 @Getter
-public class ExportBundle {
+public class ExportBundle implements Closeable {
 
     private final Path exportRoot;
     private final Map<String, Object> manifest;
-    private final Map<String, Object> meta;
+    private final ExportMeta meta;
     private final TagBundleLoader tags;
     private final TagMemberIndex tagMembers;
     private final LangCatalog langs;
@@ -24,11 +27,13 @@ public class ExportBundle {
     private final ExportAssetAccess assets;
     private final ExportBookLoader books;
     private final Map<String, String> recipeMountIds;
+    @Getter(AccessLevel.NONE)
+    private ExportArchive archive;
 
     private ExportBundle(
             Path exportRoot,
             Map<String, Object> manifest,
-            Map<String, Object> meta,
+            ExportMeta meta,
             TagBundleLoader tags,
             TagMemberIndex tagMembers,
             LangCatalog langs,
@@ -51,7 +56,29 @@ public class ExportBundle {
     }
 
     public static ExportBundle open(Path exportDir) throws IOException {
-        Path root = exportDir.normalize().toAbsolutePath();
+        return open(exportDir, null);
+    }
+
+    /**
+     * @param exportDir      guide-export directory, or a {@code .zip} of one (see {@link ExportArchive})
+     * @param iconIndexCache binary icon index sidecar (see {@link IconCatalog#load(Path, MissingIconReport, Path)}), or {@code null}
+     */
+    public static ExportBundle open(Path exportDir, Path iconIndexCache) throws IOException {
+        if (!ExportArchive.isArchive(exportDir)) {
+            return load(exportDir.normalize().toAbsolutePath(), iconIndexCache);
+        }
+        ExportArchive archive = ExportArchive.open(exportDir);
+        try {
+            ExportBundle bundle = load(archive.root(), iconIndexCache);
+            bundle.archive = archive;
+            return bundle;
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    private static ExportBundle load(Path root, Path iconIndexCache) throws IOException {
         Path manifestFile = root.resolve("manifest.json");
         Path assetsDir = root.resolve("assets");
         if (!Files.isRegularFile(manifestFile)) {
@@ -64,10 +91,10 @@ public class ExportBundle {
         Map<String, Object> manifest = team.terrafirmgreg.fieldguide.gson.JsonUtils.GSON.fromJson(
                 Files.readString(manifestFile),
                 Map.class);
-        Map<String, Object> meta = readMeta(root.resolve("meta.json"));
+        ExportMeta meta = ExportMeta.load(root);
         TagMemberIndex tagMembers = TagMemberIndex.load(root);
         ExportModelLoader modelLoader = new ExportModelLoader(root, tagMembers, root.resolve("dist"));
-        ExportAssetAccess assetAccess = new ExportAssetAccess(root, modelLoader);
+        ExportAssetAccess assetAccess = new ExportAssetAccess(root, modelLoader, meta.getBlockstates());
         return new ExportBundle(
                 root,
                 manifest != null ? manifest : Map.of(),
@@ -75,20 +102,23 @@ public class ExportBundle {
                 TagBundleLoader.load(root),
                 tagMembers,
                 LangCatalog.load(root),
-                IconCatalog.load(root),
-                MultiblockRegistry.load(root),
+                IconCatalog.load(root, new MissingIconReport(), iconIndexCache),
+                meta.getMultiblocks(),
                 assetAccess,
                 new ExportBookLoader(modelLoader),
-                RecipeMountIds.fromMeta(meta));
+                meta.getRecipeMountIds());
+    }
+
+    /** Whether this bundle is read from a {@code .zip} archive rather than a directory. */
+    public boolean isArchive() {
+        return archive != null;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> readMeta(Path metaFile) throws IOException {
-        if (!Files.isRegularFile(metaFile)) {
-            return Map.of();
+    @Override
+    public void close() throws IOException {
+        if (archive != null) {
+            archive.close();
+            archive = null;
         }
-        Map<String, Object> meta = team.terrafirmgreg.fieldguide.gson.JsonUtils.GSON.fromJson(
-                Files.readString(metaFile), Map.class);
-        return meta != null ? meta : Map.of();
     }
 }
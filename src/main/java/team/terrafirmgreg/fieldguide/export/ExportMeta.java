@@ -0,0 +1,134 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.Getter;
+import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guide-export {@code meta.json}, read in one streaming pass. {@code multiblockDefs},
+ * {@code blockstates} and {@code refs.recipeMountIds} are built straight from the token stream into
+ * the structures that use them; every other section is skipped without being parsed and can be
+ * read later with {@link #section}.
+ */
+public class ExportMeta {
+
+    private final Path metaFile;
+    @Getter
+    private final MultiblockRegistry multiblocks;
+    /** {@code blockstates[]} entries by {@code ref}, for {@link ExportAssetAccess}. */
+    @Getter
+    private final Map<String, Map<String, Object>> blockstates;
+    @Getter
+    private final Map<String, String> recipeMountIds;
+    /** Top-level keys in file order, including the skipped ones. */
+    @Getter
+    private final List<String> sectionNames;
+
+    private ExportMeta(
+            Path metaFile,
+            MultiblockRegistry multiblocks,
+            Map<String, Map<String, Object>> blockstates,
+            Map<String, String> recipeMountIds,
+            List<String> sectionNames) {
+        this.metaFile = metaFile;
+        this.multiblocks = multiblocks;
+        this.blockstates = blockstates;
+        this.recipeMountIds = recipeMountIds;
+        this.sectionNames = sectionNames;
+    }
+
+    public static ExportMeta load(Path exportRoot) {
+        Path metaFile = exportRoot.resolve("meta.json");
+        MultiblockRegistry multiblocks = MultiblockRegistry.empty();
+        Map<String, Map<String, Object>> blockstates = Map.of();
+        Map<String, String> recipeMountIds = Map.of();
+        List<String> names = new ArrayList<>();
+        if (!Files.isRegularFile(metaFile)) {
+            return new ExportMeta(metaFile, multiblocks, blockstates, recipeMountIds, List.of());
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(metaFile))) {
+            if (!beginRoot(reader)) {
+                return new ExportMeta(metaFile, multiblocks, blockstates, recipeMountIds, List.of());
+            }
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                names.add(name);
+                switch (name) {
+                    case "multiblockDefs" -> multiblocks = MultiblockRegistry.read(reader);
+                    case "blockstates" -> blockstates = ExportAssetAccess.readBlockstateIndex(reader);
+                    case "refs" -> recipeMountIds = readRefs(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed to read " + metaFile, e);
+        }
+        return new ExportMeta(metaFile, multiblocks, blockstates, recipeMountIds, List.copyOf(names));
+    }
+
+    /**
+     * Parses one top-level section on demand (another streaming pass that skips the rest);
+     * {@code null} when absent. Not cached: meant for sections read once, if at all.
+     */
+    public Object section(String name) {
+        if (!sectionNames.contains(name)) {
+            return null;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(metaFile))) {
+            beginRoot(reader);
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(name)) {
+                    return JsonUtils.GSON.fromJson(reader, Object.class);
+                }
+                reader.skipValue();
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed to read " + name + " from " + metaFile, e);
+        }
+    }
+
+    /** Opens the root object; {@code false} for an empty or {@code null} document. */
+    static boolean beginRoot(JsonReader reader) throws IOException {
+        JsonToken token;
+        try {
+            token = reader.peek();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (token != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginObject();
+        return true;
+    }
+
+    private static Map<String, String> readRefs(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return Map.of();
+        }
+        Map<String, String> recipeMountIds = Map.of();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("recipeMountIds")) {
+                recipeMountIds = RecipeMountIds.read(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return recipeMountIds;
+    }
+}
@@ -1,7 +1,9 @@
 package team.terrafirmgreg.fieldguide.export;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import team.terrafirmgreg.fieldguide.ContentHash;
 import team.terrafirmgreg.fieldguide.asset.Asset;
 import team.terrafirmgreg.fieldguide.data.minecraft.blockmodel.BlockModel;
 import team.terrafirmgreg.fieldguide.data.minecraft.blockstate.BlockState;
@@ -10,21 +12,32 @@ import team.terrafirmgreg.fieldguide.data.minecraft.blockstate.Variant;
 import team.terrafirmgreg.fieldguide.exception.AssetNotFoundException;
 import team.terrafirmgreg.fieldguide.exception.InternalException;
 import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+import team.terrafirmgreg.fieldguide.jfr.ModelResolveEvent;
+import team.terrafirmgreg.fieldguide.jfr.TextureLoadEvent;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Export-only asset/model loader: reads {@code guide-export/assets/} and {@code meta.json} blockstates.
  * No mod jars or datapack tag recursion.
+ * <p>
+ * {@link #startRecording()}/{@link #stopRecording()} collect the asset paths a render reads on the
+ * current thread, including those behind model cache hits, so callers can key cached output on
+ * their {@link #assetHash}.
  */
 @Slf4j
 @Getter
@@ -36,9 +49,18 @@ public class ExportModelLoader {
     private final TagMemberIndex tagMembers;
     private final ExportAssetStats assetStats = new ExportAssetStats();
 
-    private final Map<String, AssetSourceCache> resourceCache = new HashMap<>();
-    private final Map<String, BlockModel> blockModelCache = new TreeMap<>();
-    private final Map<String, BlockModel> itemModelCache = new TreeMap<>();
+    // Parsed models with merged parent chain, shared by all per-locale renderers and multiblock builds.
+    private final ModelCache<BlockModel> blockModelCache = new ModelCache<>("block models");
+    private final ModelCache<BlockModel> itemModelCache = new ModelCache<>("item models");
+    /** Asset paths each cached model was built from ({@code kind + " " + key}), replayed on a hit. */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Set<String>> modelSources = new ConcurrentHashMap<>();
+    /** Open recordings of this thread; a read is added to every one, so nested recordings all see it. */
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<Deque<Set<String>>> recordings = ThreadLocal.withInitial(ArrayDeque::new);
+    /** Assets do not change during a run, so each one is hashed at most once. */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, String> assetHashes = new ConcurrentHashMap<>();
 
     public ExportModelLoader(Path exportRoot, TagMemberIndex tagMembers) {
         this(exportRoot, tagMembers, exportRoot.resolve("dist"));
@@ -61,45 +83,42 @@ public class ExportModelLoader {
         builtinGenerated.setTextures(Map.of("particle", "#layer0"));
         builtinGenerated.setGuiLight("front");
 
-        blockModelCache.put("minecraft:builtin/entity", new BlockModel());
-        blockModelCache.put("minecraft:builtin/generated", builtinGenerated);
-        blockModelCache.put("minecraft:item/generated", itemGenerated);
-        itemModelCache.put("minecraft:item/generated", itemGenerated);
-        itemModelCache.put("minecraft:builtin/generated", builtinGenerated);
+        blockModelCache.pin("minecraft:builtin/entity", new BlockModel());
+        blockModelCache.pin("minecraft:builtin/generated", builtinGenerated);
+        blockModelCache.pin("minecraft:item/generated", itemGenerated);
+        itemModelCache.pin("minecraft:item/generated", itemGenerated);
+        itemModelCache.pin("minecraft:builtin/generated", builtinGenerated);
+    }
+
+    /** Bounds both model caches to {@code maxSize} parsed models each; {@code <= 0} = unbounded. */
+    public void setModelCacheSize(int maxSize) {
+        blockModelCache.setMaxSize(maxSize);
+        itemModelCache.setMaxSize(maxSize);
+    }
+
+    public List<ModelCache.Stats> getModelCacheStats() {
+        return List.of(blockModelCache.stats(), itemModelCache.stats());
+    }
+
+    public AssetPathIndex.Stats getAssetIndexStats() {
+        return source.indexStats();
     }
 
     public List<Asset> listAssets(String resourcePath) throws IOException {
         return source.listAssets(resourcePath);
     }
 
+    /** Handle for {@code resourcePath}, or {@code null} if it does not exist; the file is only opened on read. */
     public Asset getAsset(String resourcePath) {
-        if (resourceCache.containsKey(resourcePath)) {
-            AssetSourceCache cached = resourceCache.get(resourcePath);
-            try {
-                return new Asset(resourcePath, source.getInputStream(resourcePath), source);
-            } catch (IOException e) {
-                resourceCache.remove(resourcePath);
-            }
-        }
-        if (source.exists(resourcePath)) {
-            try {
-                resourceCache.put(resourcePath, new AssetSourceCache());
-                return new Asset(resourcePath, source.getInputStream(resourcePath), source);
-            } catch (IOException e) {
-                log.error("Error reading resource: {}", resourcePath, e);
-            }
-        }
-        return null;
+        recordRead(resourcePath);
+        return source.exists(resourcePath) ? new Asset(resourcePath, source) : null;
     }
 
     public List<Asset> getAssets(String resourcePath) {
+        recordRead(resourcePath);
         List<Asset> assets = new ArrayList<>();
         if (source.exists(resourcePath)) {
-            try {
-                assets.add(new Asset(resourcePath, source.getInputStream(resourcePath), source));
-            } catch (IOException e) {
-                log.error("Error reading resource: {}", resourcePath, e);
-            }
+            assets.add(new Asset(resourcePath, source));
         }
         return assets;
     }
@@ -113,17 +132,65 @@ public class ExportModelLoader {
         return asset;
     }
 
-    public BufferedImage loadTexture(ExportAssetKey assetKey) {
-        Asset asset = getAsset(assetKey.getResourcePath());
-        if (asset == null) {
-            log.error("Texture not found: {}", assetKey);
-            assetStats.addMissingTexture(assetKey.getId());
-            throw new AssetNotFoundException("Texture not found: " + assetKey.getResourcePath());
+    /** Starts collecting the asset paths read on this thread; recordings may nest. */
+    public void startRecording() {
+        recordings.get().push(new TreeSet<>());
+    }
+
+    /** Ends the innermost recording of this thread and returns the paths it saw, missing ones included. */
+    public Set<String> stopRecording() {
+        Deque<Set<String>> open = recordings.get();
+        return open.isEmpty() ? Set.of() : open.pop();
+    }
+
+    /** Adds {@code resourcePath} to this thread's recordings; for callers that serve a read from their own cache. */
+    public void recordRead(String resourcePath) {
+        for (Set<String> recording : recordings.get()) {
+            recording.add(resourcePath);
         }
+    }
+
+    /** SHA-256 of the asset's bytes, or of a missing-file marker; memoized for the run. */
+    public String assetHash(String resourcePath) {
+        return assetHashes.computeIfAbsent(resourcePath, path -> {
+            ContentHash hash = ContentHash.sha256();
+            if (!source.exists(path)) {
+                return hash.put((String) null).hex();
+            }
+            try (InputStream in = source.getInputStream(path)) {
+                return hash.put(in).hex();
+            } catch (IOException e) {
+                throw new InternalException("Failed to hash asset: " + path);
+            }
+        });
+    }
+
+    public BufferedImage loadTexture(ExportAssetKey assetKey) {
+        TextureLoadEvent event = new TextureLoadEvent();
+        event.begin();
+        BufferedImage image = null;
         try {
-            return ImageIO.read(asset.getInputStream());
-        } catch (IOException e) {
-            throw new InternalException("Error loading texture: " + assetKey);
+            Asset asset = getAsset(assetKey.getResourcePath());
+            if (asset == null) {
+                log.error("Texture not found: {}", assetKey);
+                assetStats.addMissingTexture(assetKey.getId());
+                throw new AssetNotFoundException("Texture not found: " + assetKey.getResourcePath());
+            }
+            try (InputStream in = asset.getInputStream()) {
+                image = ImageIO.read(in);
+                return image;
+            } catch (IOException e) {
+                throw new InternalException("Error loading texture: " + assetKey);
+            }
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.texture = assetKey.getResourcePath();
+                event.found = image != null;
+                event.width = image != null ? image.getWidth() : 0;
+                event.height = image != null ? image.getHeight() : 0;
+                event.commit();
+            }
         }
     }
 
@@ -160,23 +227,14 @@ public class ExportModelLoader {
 
     public BlockModel loadItemModel(String itemId) {
         String resourceLocation = itemId.indexOf(':') < 0 ? "minecraft:" + itemId : itemId;
-        if (itemModelCache.containsKey(resourceLocation)) {
-            return itemModelCache.get(resourceLocation);
-        }
-        Asset asset = loadResource(itemId, "models/item", "assets", ".json");
-        try {
-            BlockModel model = JsonUtils.readFile(asset.getInputStream(), BlockModel.class);
-            model.getInherits().add(resourceLocation);
-            String parent = model.getParent();
-            if (parent != null && !parent.isEmpty()) {
-                model.setParentModel(loadModel(parent));
+        return resolve(itemModelCache, "item", resourceLocation, key -> {
+            Asset asset = loadResource(itemId, "models/item", "assets", ".json");
+            try {
+                return parseModel(key, asset);
+            } catch (Exception e) {
+                throw new InternalException("Failed to load item model: " + itemId);
             }
-            model.mergeWithParent();
-            itemModelCache.put(resourceLocation, model);
-            return model;
-        } catch (Exception e) {
-            throw new InternalException("Failed to load item model: " + itemId);
-        }
+        });
     }
 
     public BlockModel loadBlockModelWithState(String modelId) {
@@ -189,11 +247,42 @@ public class ExportModelLoader {
             }
         }
 
-        if (blockModelCache.containsKey(modelId)) {
-            return blockModelCache.get(modelId);
+        return resolve(blockModelCache, "blockstate", modelId, key -> resolveBlockState(modelId, blockVariant));
+    }
+
+    /**
+     * Model cache lookup recorded as a {@link ModelResolveEvent}; a miss runs {@code loader}. The
+     * assets behind the model are recorded on a hit too.
+     */
+    private BlockModel resolve(
+            ModelCache<BlockModel> cache, String kind, String key, Function<String, BlockModel> loader) {
+        ModelResolveEvent event = new ModelResolveEvent();
+        event.begin();
+        event.cacheHit = true;
+        String sourceKey = kind + " " + key;
+        try {
+            BlockModel model = cache.get(key, k -> {
+                event.cacheHit = false;
+                startRecording();
+                try {
+                    return loader.apply(k);
+                } finally {
+                    modelSources.put(sourceKey, Set.copyOf(stopRecording()));
+                }
+            });
+            modelSources.getOrDefault(sourceKey, Set.of()).forEach(this::recordRead);
+            return model;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.modelId = key;
+                event.kind = kind;
+                event.commit();
+            }
         }
+    }
 
-        String blockStateId = blockVariant.getBlock();
+    private BlockModel resolveBlockState(String modelId, BlockVariant blockVariant) {
         Map<String, String> state = blockVariant.getProperties();
         List<BlockState> list = loadBlockStates(blockVariant.getBlock());
         if (list == null || list.isEmpty()) {
@@ -237,8 +326,6 @@ public class ExportModelLoader {
                 throw new InternalException("BlockVariants not found:" + modelId);
             }
         }
-
-        blockModelCache.put(modelId, model);
         return model;
     }
 
@@ -292,45 +379,37 @@ public class ExportModelLoader {
 
     public BlockModel loadModel(String modelId) {
         String resourceLocation = modelId.indexOf(':') < 0 ? "minecraft:" + modelId : modelId;
-        if (blockModelCache.containsKey(resourceLocation)) {
-            return blockModelCache.get(resourceLocation);
-        }
-        Asset asset = loadResource(resourceLocation, "models", "assets", ".json");
-        try {
-            BlockModel model = JsonUtils.readFile(asset.getInputStream(), BlockModel.class);
-            model.getInherits().add(resourceLocation);
-            String parent = model.getParent();
-            if (parent != null && !parent.isEmpty()) {
-                model.setParentModel(loadModel(parent));
+        return resolve(blockModelCache, "model", resourceLocation, key -> {
+            Asset asset = loadResource(key, "models", "assets", ".json");
+            try {
+                return parseModel(key, asset);
+            } catch (Exception e) {
+                throw new InternalException("Load model failed: " + key);
             }
-            model.mergeWithParent();
-            blockModelCache.put(resourceLocation, model);
-            return model;
-        } catch (Exception e) {
-            throw new InternalException("Load model failed: " + resourceLocation);
-        }
+        });
     }
 
     public BlockModel loadBlockModel(String blockId) {
         String resourceLocation = blockId.indexOf(':') < 0 ? "minecraft:" + blockId : blockId;
-        if (blockModelCache.containsKey(resourceLocation)) {
-            return blockModelCache.get(resourceLocation);
-        }
-        Asset asset = loadResource(blockId, "models/block", "assets", ".json");
-        try {
-            BlockModel model = JsonUtils.readFile(asset.getInputStream(), BlockModel.class);
-            model.getInherits().add(resourceLocation);
-            String parent = model.getParent();
-            if (parent != null && !parent.isEmpty()) {
-                model.setParentModel(loadModel(parent));
+        return resolve(blockModelCache, "block", resourceLocation, key -> {
+            Asset asset = loadResource(blockId, "models/block", "assets", ".json");
+            try {
+                return parseModel(key, asset);
+            } catch (Exception e) {
+                throw new InternalException("Failed to load block model: " + blockId);
             }
-            model.mergeWithParent();
-            blockModelCache.put(resourceLocation, model);
-            return model;
-        } catch (Exception e) {
-            throw new InternalException("Failed to load block model: " + blockId);
-        }
+        });
     }
 
-    private record AssetSourceCache() {}
+    /** Parses a model and merges its parent chain; parents come from (and fill) the block model cache. */
+    private BlockModel parseModel(String resourceLocation, Asset asset) throws IOException {
+        BlockModel model = JsonUtils.readFile(asset.getInputStream(), BlockModel.class);
+        model.getInherits().add(resourceLocation);
+        String parent = model.getParent();
+        if (parent != null && !parent.isEmpty()) {
+            model.setParentModel(loadModel(parent));
+        }
+        model.mergeWithParent();
+        return model;
+    }
 }
@@ -1,25 +1,25 @@
 package team.terrafirmgreg.fieldguide.export;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
 import team.terrafirmgreg.fieldguide.asset.Asset;
 import team.terrafirmgreg.fieldguide.asset.AssetSource;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
- * Reads assets from a guide-export {@code assets/} tree on disk.
+ * Reads assets from a guide-export {@code assets/} tree, on disk or inside a mounted {@link ExportArchive}.
+ * Existence checks and listings are answered from an {@link AssetPathIndex} built on first use.
  */
 public class FsAssetSource extends AssetSource {
 
     private final Path absoluteRootPath;
+    private volatile AssetPathIndex index;
 
     public FsAssetSource(Path rootPath) {
         super(rootPath, "guide-export");
@@ -28,6 +28,10 @@ public class FsAssetSource extends AssetSource {
 
     @Override
     public boolean exists(String resourcePath) {
+        AssetPathIndex index = index();
+        if (index.covers(resourcePath)) {
+            return index.exists(resourcePath);
+        }
         return Files.exists(rootPath.resolve(resourcePath));
     }
 
@@ -36,25 +40,59 @@ public class FsAssetSource extends AssetSource {
         return Files.newInputStream(rootPath.resolve(resourcePath));
     }
 
+    /** Every file under {@code resourcePath}, in path order; nothing is opened until read. */
     @Override
     public List<Asset> listAssets(String resourcePath) throws IOException {
         List<Asset> assets = new ArrayList<>();
+        AssetPathIndex index = index();
+        if (index.covers(resourcePath)) {
+            for (String path : index.list(resourcePath)) {
+                assets.add(new Asset(path, this));
+            }
+            return assets;
+        }
         Path fullPath = rootPath.resolve(resourcePath);
-        if (!Files.exists(fullPath) || !Files.isDirectory(fullPath)) {
+        if (!Files.isDirectory(fullPath)) {
             return assets;
         }
-        Collection<File> files = FileUtils.listFiles(fullPath.toFile(), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE);
-        for (File file : files) {
-            Path relativePath = absoluteRootPath.relativize(file.toPath().toAbsolutePath());
-            String relativePathStr = relativePath.toString().replace("\\", "/");
-            assets.add(new Asset(relativePathStr, Files.newInputStream(file.toPath()), this));
+        try (Stream<Path> files = Files.walk(fullPath)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                Path relativePath = absoluteRootPath.relativize(file.toAbsolutePath());
+                assets.add(new Asset(relativePath.toString().replace("\\", "/"), this));
+            }
         }
         return assets;
     }
 
     @Override
     public boolean isDirectory(String resourcePath) {
+        AssetPathIndex index = index();
+        if (index.covers(resourcePath)) {
+            return index.isDirectory(resourcePath);
+        }
         Path fullPath = rootPath.resolve(resourcePath);
         return Files.exists(fullPath) && Files.isDirectory(fullPath);
     }
+
+    public AssetPathIndex.Stats indexStats() {
+        return index().stats();
+    }
+
+    private AssetPathIndex index() {
+        AssetPathIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    try {
+                        current = AssetPathIndex.build(absoluteRootPath, AssetPathIndex.ROOTS);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot index " + absoluteRootPath, e);
+                    }
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
 }
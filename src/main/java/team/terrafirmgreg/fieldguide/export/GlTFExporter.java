@@ -1,11 +1,14 @@
 package team.terrafirmgreg.fieldguide.export;
 
+import team.terrafirmgreg.fieldguide.ContentHash;
 import team.terrafirmgreg.fieldguide.render3d.material.Material;
 import team.terrafirmgreg.fieldguide.render3d.material.RenderState;
 import team.terrafirmgreg.fieldguide.render3d.material.Texture;
+import team.terrafirmgreg.fieldguide.render3d.math.Quaternion;
 import team.terrafirmgreg.fieldguide.render3d.math.Transform;
 import team.terrafirmgreg.fieldguide.render3d.math.Vector2f;
 import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector4f;
 import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
 import team.terrafirmgreg.fieldguide.render3d.scene.Mesh;
 import team.terrafirmgreg.fieldguide.render3d.scene.Node;
@@ -17,10 +20,12 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
@@ -42,6 +47,7 @@ public class GlTFExporter {
     private static final String ACCESSOR_TYPE_VEC2 = "VEC2";
 
     // 组件类型
+    private static final int COMPONENT_TYPE_UNSIGNED_SHORT = 5123;
     private static final int COMPONENT_TYPE_UNSIGNED_INT = 5125;
     private static final int COMPONENT_TYPE_FLOAT = 5126;
 
@@ -56,6 +62,7 @@ public class GlTFExporter {
     
     // 纹理过滤/包装（仅 nearest + clamp，适合 MC 像素纹理）
     private static final int MAG_FILTER_NEAREST = 9728;
+    private static final int MIN_FILTER_NEAREST = 9728;
     private static final int MIN_FILTER_NEAREST_MIPMAP_NEAREST = 9984;
     private static final int WRAP_CLAMP_TO_EDGE = 33071;
 
@@ -74,11 +81,138 @@ public class GlTFExporter {
     private List<Map<String, Object>> nodes;
     private List<Map<String, Object>> scenes;
 
-    // 二进制数据
-    private ByteArrayOutputStream binaryData;
+    // 导出结果（字节）发生变化时递增，使 {@link GlbCache} 中按旧格式写出的 GLB 失效
+    private static final int FORMAT_VERSION = 1;
+
+    // 每个顶点: position(12) + normal(12) + texCoord(8) 字节
+    private static final int VERTEX_BYTES = 12 + 12 + 8;
+    // 顶点数不超过该值时索引用 16 位（65535 为 primitive restart 保留值，不可作为索引）
+    private static final int MAX_SHORT_INDEXED_VERTICES = 65535;
+
+    // 二进制数据：几何体一次性写入预分配的 geometryData，纹理 PNG 作为独立片段追加在其后
+    private ByteBuffer geometryData;
+    private List<ByteBuffer> binarySegments;
+    private int binaryLength;
+    private final Vector3f scratchPosition = new Vector3f();
+    private final Vector3f scratchNormal = new Vector3f();
     private Map<Material, Integer> materialIndexMap;
     private Map<Texture, Integer> imageIndexMap;
 
+    /**
+     * 导出前按材质合并几何体并去重顶点，见 {@link MeshMerger}
+     */
+    private boolean mergeMeshes = true;
+
+    /**
+     * 导出前把同一渲染状态的纹理打包进图集，见 {@link TextureAtlas}
+     */
+    private boolean packAtlas = false;
+
+
+    public GlTFExporter setMergeMeshes(boolean mergeMeshes) {
+        this.mergeMeshes = mergeMeshes;
+        return this;
+    }
+
+    public GlTFExporter setPackAtlas(boolean packAtlas) {
+        this.packAtlas = packAtlas;
+        return this;
+    }
+
+    /**
+     * 导出结果的内容哈希：覆盖导出选项、几何体（世界变换、顶点、索引）、材质状态与纹理像素，
+     * 即 {@link #export(Node, String)} 读取的全部输入。相同哈希的 GLB 字节相同，可直接复用，见 {@link GlbCache}。
+     */
+    public String fingerprint(Node rootNode) {
+        ContentHash hash = ContentHash.sha256()
+                .put(FORMAT_VERSION)
+                .put(mergeMeshes ? 1 : 0)
+                .put(packAtlas ? 1 : 0);
+        Map<Texture, Integer> textureIds = new IdentityHashMap<>();
+        List<Geometry> geometries = rootNode.getGeometryList(null);
+        hash.put(geometries.size());
+        for (Geometry geometry : geometries) {
+            putGeometry(hash, geometry);
+            Material material = geometry.getMaterial();
+            if (material == null) {
+                hash.put((String) null);
+                continue;
+            }
+            RenderState state = material.getRenderState();
+            Vector4f diffuse = material.getDiffuse();
+            hash.put(state.getCullMode() + "|" + state.isAlphaTest() + "|" + state.getAlphaFalloff()
+                    + "|" + state.getBlendMode() + "|" + material.getShininess()
+                    + "|" + diffuse.x + "," + diffuse.y + "," + diffuse.z + "," + diffuse.w);
+            Texture texture = material.getDiffuseMap();
+            if (texture == null) {
+                hash.put((String) null);
+                continue;
+            }
+            // 同一纹理只哈希一次像素，之后按出现序号引用
+            Integer id = textureIds.get(texture);
+            if (id != null) {
+                hash.put("#" + id);
+                continue;
+            }
+            textureIds.put(texture, textureIds.size());
+            hash.put(texture.getName()).put(texture.isMipmaps() ? 1 : 0);
+            BufferedImage image = texture.getImage();
+            int[] argb = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+            ByteBuffer pixels = ByteBuffer.allocate(8 + argb.length * 4);
+            pixels.putInt(image.getWidth()).putInt(image.getHeight()).asIntBuffer().put(argb);
+            hash.put(pixels.array());
+        }
+        return hash.hex();
+    }
+
+    private static void putGeometry(ContentHash hash, Geometry geometry) {
+        Mesh mesh = geometry.getMesh();
+        if (mesh == null || mesh.getVertexes() == null || mesh.getIndexes() == null) {
+            hash.put((String) null);
+            return;
+        }
+        Vertex[] vertexes = mesh.getVertexes();
+        int[] indexes = mesh.getIndexes();
+        ByteBuffer data = ByteBuffer.allocate(10 * 4 + vertexes.length * (1 + 12 * 4) + indexes.length * 4);
+        Transform transform = geometry.getWorldTransform();
+        Vector3f translation = transform.getTranslation();
+        Vector3f scale = transform.getScale();
+        Quaternion rotation = transform.getRotation();
+        putVector(data, translation);
+        data.putFloat(rotation.x).putFloat(rotation.y).putFloat(rotation.z).putFloat(rotation.w);
+        putVector(data, scale);
+        for (Vertex vertex : vertexes) {
+            if (vertex == null) {
+                data.put((byte) 0);
+                continue;
+            }
+            data.put((byte) 1);
+            putVector(data, vertex.position);
+            putVector(data, vertex.normal);
+            if (vertex.texCoord != null) {
+                data.putFloat(vertex.texCoord.x).putFloat(vertex.texCoord.y);
+            } else {
+                data.putFloat(Float.NaN).putFloat(Float.NaN);
+            }
+            if (vertex.color != null) {
+                data.putFloat(vertex.color.x).putFloat(vertex.color.y).putFloat(vertex.color.z).putFloat(vertex.color.w);
+            } else {
+                data.putFloat(Float.NaN).putFloat(Float.NaN).putFloat(Float.NaN).putFloat(Float.NaN);
+            }
+        }
+        for (int index : indexes) {
+            data.putInt(index);
+        }
+        hash.put(data.array());
+    }
+
+    private static void putVector(ByteBuffer data, Vector3f vector) {
+        if (vector != null) {
+            data.putFloat(vector.x).putFloat(vector.y).putFloat(vector.z);
+        } else {
+            data.putFloat(Float.NaN).putFloat(Float.NaN).putFloat(Float.NaN);
+        }
+    }
 
     /**
      * 导出节点树为GLB文件
@@ -94,7 +228,17 @@ public class GlTFExporter {
         reset();
 
         List<Geometry> geometries = rootNode.getGeometryList(null);
-        
+        int sourceGeometries = geometries.size();
+        if (packAtlas) {
+            geometries = TextureAtlas.pack(geometries);
+        }
+        if (mergeMeshes) {
+            geometries = MeshMerger.merge(geometries);
+        }
+
+        // 先统计顶点/索引数量，一次分配整个几何体缓冲区
+        allocateGeometryData(geometries);
+
         // 处理所有几何体
         processGeometries(geometries);
         
@@ -104,7 +248,7 @@ public class GlTFExporter {
         // 写入GLB文件
         writeGlbFile(filePath);
 
-        log.debug("成功导出GLB文件: {}, 包含 {} 个几何体", filePath, geometries.size());
+        log.debug("成功导出GLB文件: {}, {} 个几何体合并为 {} 个网格", filePath, sourceGeometries, geometries.size());
     }
 
     private void reset() {
@@ -119,12 +263,62 @@ public class GlTFExporter {
         images = new ArrayList<>();
         nodes = new ArrayList<>();
         scenes = new ArrayList<>();
-        binaryData = new ByteArrayOutputStream();
+        binarySegments = new ArrayList<>();
+        binaryLength = 0;
         materialIndexMap = new HashMap<>();
         imageIndexMap = new HashMap<>();
 
     }
 
+    /**
+     * 几何体数据紧凑排在 BIN 块开头；各段长度均为 4 的倍数，无需对齐填充。
+     * 堆外缓冲区只在同一个 exporter 的多次导出间复用，容量不足时才重新分配；
+     * 每个 exporter 至少分配一次，旧缓冲区要等 GC 回收，所以调用方应长期持有 exporter
+     * （TextureRenderer 每个语言一个）。
+     */
+    private void allocateGeometryData(List<Geometry> geometries) {
+        long size = 0;
+        for (Geometry geometry : geometries) {
+            Mesh mesh = exportableMesh(geometry);
+            if (mesh != null) {
+                int vertexCount = mesh.getVertexes().length;
+                size += (long) vertexCount * VERTEX_BYTES + indexBytes(vertexCount, mesh.getIndexes().length);
+            }
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("GLB geometry too large: " + size + " bytes");
+        }
+        if (geometryData == null || geometryData.capacity() < size) {
+            geometryData = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        geometryData.clear().limit((int) size);
+        binarySegments.add(geometryData);
+        binaryLength = (int) size;
+    }
+
+    private static boolean useShortIndices(int vertexCount) {
+        return vertexCount <= MAX_SHORT_INDEXED_VERTICES;
+    }
+
+    /** 索引段长度，16 位索引补齐到 4 字节以保持后续段对齐 */
+    private static long indexBytes(int vertexCount, int indexCount) {
+        if (useShortIndices(vertexCount)) {
+            return (indexCount * 2L + 3) & ~3L;
+        }
+        return indexCount * 4L;
+    }
+
+    private static Mesh exportableMesh(Geometry geometry) {
+        Mesh mesh = geometry.getMesh();
+        if (mesh == null) return null;
+        Vertex[] vertices = mesh.getVertexes();
+        int[] indices = mesh.getIndexes();
+        if (vertices == null || vertices.length == 0 || indices == null || indices.length == 0) {
+            return null;
+        }
+        return mesh;
+    }
+
     private void processGeometries(List<Geometry> geometries) throws IOException {
         for (Geometry geometry : geometries) {
             processGeometry(geometry);
@@ -132,48 +326,79 @@ public class GlTFExporter {
     }
 
     private void processGeometry(Geometry geometry) throws IOException {
-        Mesh mesh = geometry.getMesh();
+        Mesh mesh = exportableMesh(geometry);
         if (mesh == null) return;
 
         Vertex[] vertices = mesh.getVertexes();
         int[] indices = mesh.getIndexes();
-
-        if (vertices == null || vertices.length == 0 || indices == null || indices.length == 0) {
-            return;
-        }
+        int vertexCount = vertices.length;
 
         // 获取几何体的世界变换
         Transform transform = geometry.getWorldTransform();
 
-        // 提取顶点数据并应用变换
-        List<Float> positions = new ArrayList<>();
-        List<Float> normals = new ArrayList<>();
-        List<Float> texCoords = new ArrayList<>();
-
-        for (Vertex vertex : vertices) {
+        // 三个属性各占一段连续区域，单次遍历顶点同时写入并统计 min/max
+        ByteBuffer data = geometryData;
+        int positionOffset = data.position();
+        int normalOffset = positionOffset + vertexCount * 12;
+        int texCoordOffset = normalOffset + vertexCount * 12;
+        int indexOffset = texCoordOffset + vertexCount * 8;
+
+        float[] positionMin = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] positionMax = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        float[] normalMin = positionMin.clone();
+        float[] normalMax = positionMax.clone();
+        float[] texCoordMin = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] texCoordMax = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex vertex = vertices[i];
             // 应用位置变换
-            Vector3f pos = transform.transformVector(vertex.position, null);
-            positions.add(pos.x);
-            positions.add(pos.y);
-            positions.add(pos.z);
+            Vector3f pos = transform.transformVector(vertex.position, scratchPosition);
+            putVec3(data, positionOffset + i * 12, pos, positionMin, positionMax);
 
             // 应用法线变换
-            Vector3f norm = transform.transformNormal(vertex.normal, null);
-            normals.add(norm.x);
-            normals.add(norm.y);
-            normals.add(norm.z);
+            Vector3f norm = transform.transformNormal(vertex.normal, scratchNormal);
+            putVec3(data, normalOffset + i * 12, norm, normalMin, normalMax);
 
-            // 纹理坐标保持不变（Transform不包含UV变换）
+            // 纹理坐标保持不变（Transform不包含UV变换）；GLTF使用不同的V坐标系
             Vector2f uv = vertex.texCoord;
-            texCoords.add(uv.x);
-            texCoords.add(1.0f - uv.y); // GLTF使用不同的V坐标系
+            float u = uv.x;
+            float v = 1.0f - uv.y;
+            data.putFloat(texCoordOffset + i * 8, u);
+            data.putFloat(texCoordOffset + i * 8 + 4, v);
+            texCoordMin[0] = Math.min(texCoordMin[0], u);
+            texCoordMin[1] = Math.min(texCoordMin[1], v);
+            texCoordMax[0] = Math.max(texCoordMax[0], u);
+            texCoordMax[1] = Math.max(texCoordMax[1], v);
         }
 
+        boolean shortIndices = useShortIndices(vertexCount);
+        int indexMin = Integer.MAX_VALUE;
+        int indexMax = Integer.MIN_VALUE;
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (shortIndices) {
+                data.putShort(indexOffset + i * 2, (short) index);
+            } else {
+                data.putInt(indexOffset + i * 4, index);
+            }
+            indexMin = Math.min(indexMin, index);
+            indexMax = Math.max(indexMax, index);
+        }
+        int indexEnd = indexOffset + (int) indexBytes(vertexCount, indices.length);
+        for (int i = indexOffset + indices.length * (shortIndices ? 2 : 4); i < indexEnd; i++) {
+            data.put(i, (byte) 0);
+        }
+        data.position(indexEnd);
+
         // 创建访问器和缓冲区视图
-        int positionAccessor = createFloatAccessor(positions, ACCESSOR_TYPE_VEC3);
-        int normalAccessor = createFloatAccessor(normals, ACCESSOR_TYPE_VEC3);
-        int texCoordAccessor = createFloatAccessor(texCoords, ACCESSOR_TYPE_VEC2);
-        int indexAccessor = createUnsignedIntAccessor(indices);
+        int positionAccessor = createFloatAccessor(
+                positionOffset, vertexCount, ACCESSOR_TYPE_VEC3, positionMin, positionMax);
+        int normalAccessor = createFloatAccessor(
+                normalOffset, vertexCount, ACCESSOR_TYPE_VEC3, normalMin, normalMax);
+        int texCoordAccessor = createFloatAccessor(
+                texCoordOffset, vertexCount, ACCESSOR_TYPE_VEC2, texCoordMin, texCoordMax);
+        int indexAccessor = createIndexAccessor(indexOffset, indices.length, shortIndices, indexMin, indexMax);
 
         // 处理材质
         int materialIndex = processMaterial(geometry.getMaterial());
@@ -201,81 +426,78 @@ public class GlTFExporter {
         return attributes;
     }
 
-    private int createFloatAccessor(List<Float> data, String type) throws IOException {
+    private static void putVec3(ByteBuffer data, int offset, Vector3f value, float[] min, float[] max) {
+        data.putFloat(offset, value.x);
+        data.putFloat(offset + 4, value.y);
+        data.putFloat(offset + 8, value.z);
+        min[0] = Math.min(min[0], value.x);
+        min[1] = Math.min(min[1], value.y);
+        min[2] = Math.min(min[2], value.z);
+        max[0] = Math.max(max[0], value.x);
+        max[1] = Math.max(max[1], value.y);
+        max[2] = Math.max(max[2], value.z);
+    }
+
+    private int createFloatAccessor(int byteOffset, int count, String type, float[] min, float[] max) {
         // 创建缓冲区视图
-        int bufferView = createFloatBufferView(data);
-        
+        int bufferView = addBufferView(byteOffset, count * getComponentCount(type) * 4, TARGET_ARRAY_BUFFER);
+
         // 创建访问器
         Map<String, Object> accessor = new LinkedHashMap<>();
         accessor.put("bufferView", bufferView);
         accessor.put("componentType", COMPONENT_TYPE_FLOAT);
-        accessor.put("count", data.size() / getComponentCount(type));
+        accessor.put("count", count);
         accessor.put("type", type);
-        accessor.put("min", getMinValues(data, type));
-        accessor.put("max", getMaxValues(data, type));
+        accessor.put("min", toList(min));
+        accessor.put("max", toList(max));
 
         int index = accessors.size();
         accessors.add(accessor);
         return index;
     }
 
-    private int createUnsignedIntAccessor(int[] data) throws IOException {
+    private int createIndexAccessor(int byteOffset, int count, boolean shortIndices, int min, int max) {
         // 创建缓冲区视图
-        int bufferView = createIntBufferView(data);
-        
+        int bufferView = addBufferView(byteOffset, count * (shortIndices ? 2 : 4), TARGET_ELEMENT_ARRAY_BUFFER);
+
         // 创建访问器
         Map<String, Object> accessor = new LinkedHashMap<>();
         accessor.put("bufferView", bufferView);
-        accessor.put("componentType", COMPONENT_TYPE_UNSIGNED_INT);
-        accessor.put("count", data.length);
+        accessor.put("componentType", shortIndices ? COMPONENT_TYPE_UNSIGNED_SHORT : COMPONENT_TYPE_UNSIGNED_INT);
+        accessor.put("count", count);
         accessor.put("type", ACCESSOR_TYPE_SCALAR);
-        accessor.put("min", getMinValues(data));
-        accessor.put("max", getMaxValues(data));
+        accessor.put("min", Collections.singletonList(min));
+        accessor.put("max", Collections.singletonList(max));
 
         int index = accessors.size();
         accessors.add(accessor);
         return index;
     }
 
-    private int createFloatBufferView(List<Float> data) throws IOException {
-        byte[] bytes = new byte[data.size() * 4];
-        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
-        for (Float f : data) {
-            buffer.putFloat(f);
-        }
-
-        return createBufferView(bytes, TARGET_ARRAY_BUFFER);
+    /**
+     * 追加一段独立数据（纹理 PNG）到 BIN 块末尾，按 4 字节对齐
+     */
+    private int createBufferView(byte[] data, int target) {
+        appendPadding();
+        int offset = binaryLength;
+        binarySegments.add(ByteBuffer.wrap(data));
+        binaryLength += data.length;
+        return addBufferView(offset, data.length, target);
     }
 
-    private int createIntBufferView(int[] data) throws IOException {
-        byte[] bytes = new byte[data.length * 4];
-        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
-        for (int i : data) {
-            buffer.putInt(i);
+    private void appendPadding() {
+        int padding = (4 - (binaryLength % 4)) % 4;
+        if (padding > 0) {
+            binarySegments.add(ByteBuffer.allocate(padding));
+            binaryLength += padding;
         }
-
-        return createBufferView(bytes, TARGET_ELEMENT_ARRAY_BUFFER);
     }
 
-    private int createBufferView(byte[] data, int target) throws IOException {
-        // 确保4字节对齐
-        int currentOffset = binaryData.size();
-        int padding = (4 - (currentOffset % 4)) % 4;
-        
-        // 添加填充字节
-        for (int i = 0; i < padding; i++) {
-            binaryData.write(0);
-        }
-        
-        // 添加到二进制数据
-        int offset = binaryData.size();
-        binaryData.write(data);
-
-        // 创建缓冲区视图
+    private int addBufferView(int byteOffset, int byteLength, int target) {
         Map<String, Object> bufferView = new LinkedHashMap<>();
         bufferView.put("buffer", 0); // 使用第一个缓冲区
-        bufferView.put("byteOffset", offset);
-        bufferView.put("byteLength", data.length);
+        bufferView.put("byteOffset", byteOffset);
+        bufferView.put("byteLength", byteLength);
         if (target != 0) {
             bufferView.put("target", target);
         }
@@ -306,13 +528,6 @@ public class GlTFExporter {
         return index;
     }
     
-    /**
-     * 添加缓冲区视图（辅助方法）
-     */
-    private int addBufferView(byte[] data, String name) throws IOException {
-        return createBufferView(data, 0); // target=0 for generic data
-    }
-    
     private int createDefaultMaterial() {
         Map<String, Object> material = new LinkedHashMap<>();
         material.put("name", "default");
@@ -429,7 +644,7 @@ public class GlTFExporter {
             // 创建纹理引用（指向现有图像）
             Map<String, Object> gltfTexture = new LinkedHashMap<>();
             gltfTexture.put("source", existingIndex);
-            gltfTexture.put("sampler", createNearestSampler());
+            gltfTexture.put("sampler", createNearestSampler(texture.isMipmaps()));
             
             int index = textures.size();
             textures.add(gltfTexture);
@@ -456,21 +671,22 @@ public class GlTFExporter {
         int textureIndex = textures.size();
         Map<String, Object> gltfTexture = new LinkedHashMap<>();
         gltfTexture.put("source", imageIndex);
-        gltfTexture.put("sampler", createNearestSampler());
+        gltfTexture.put("sampler", createNearestSampler(texture.isMipmaps()));
         textures.add(gltfTexture);
         
         return textureIndex;
     }
     
     /**
-     * 创建最近邻过滤的采样器（适合像素纹理）
+     * 创建最近邻过滤的采样器（适合像素纹理）；图集纹理不使用 mipmap
      */
-    private int createNearestSampler() {
-        // 检查是否已经创建了最近邻采样器
+    private int createNearestSampler(boolean mipmaps) {
+        int minFilter = mipmaps ? MIN_FILTER_NEAREST_MIPMAP_NEAREST : MIN_FILTER_NEAREST;
+        // 检查是否已经创建了相同的采样器
         for (int i = 0; i < samplers.size(); i++) {
             Map<String, Object> sampler = samplers.get(i);
             if (MAG_FILTER_NEAREST == (Integer) sampler.get("magFilter") &&
-                MIN_FILTER_NEAREST_MIPMAP_NEAREST == (Integer) sampler.get("minFilter")) {
+                minFilter == (Integer) sampler.get("minFilter")) {
                 return i;
             }
         }
@@ -478,7 +694,7 @@ public class GlTFExporter {
         // 创建新的最近邻采样器
         Map<String, Object> sampler = new LinkedHashMap<>();
         sampler.put("magFilter", MAG_FILTER_NEAREST);
-        sampler.put("minFilter", MIN_FILTER_NEAREST_MIPMAP_NEAREST);
+        sampler.put("minFilter", minFilter);
         sampler.put("wrapS", WRAP_CLAMP_TO_EDGE);
         sampler.put("wrapT", WRAP_CLAMP_TO_EDGE);
         
@@ -490,7 +706,8 @@ public class GlTFExporter {
     private void buildSceneStructure(List<Geometry> geometries, String modelName) {
         // 创建缓冲区
         Map<String, Object> buffer = new LinkedHashMap<>();
-        buffer.put("byteLength", binaryData.size());
+        appendPadding();
+        buffer.put("byteLength", binaryLength);
         buffers.add(buffer);
 
         // 创建节点
@@ -548,92 +765,96 @@ public class GlTFExporter {
             paddedJsonData[jsonData.length + i] = 32; // 空格字符
         }
 
-        // 填充二进制数据到4字节对齐
-        int binPadding = (4 - (binaryData.size() % 4)) % 4;
-        for (int i = 0; i < binPadding; i++) {
-            binaryData.write(0);
+        ByteBuffer header = ByteBuffer.allocate(12 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        // GLB文件头 (12字节): "glTF", 版本 2, 总长度
+        header.putInt(GLB_MAGIC);
+        header.putInt(GLB_VERSION);
+        header.putInt(12 + 8 + paddedJsonData.length + 8 + binaryLength);
+        // JSON块头: 长度, "JSON"
+        header.putInt(paddedJsonData.length);
+        header.putInt(GLB_JSON_CHUNK_TYPE);
+        header.flip();
+
+        // 二进制块头: 长度, "BIN\0"
+        ByteBuffer binChunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        binChunkHeader.putInt(binaryLength);
+        binChunkHeader.putInt(GLB_BIN_CHUNK_TYPE);
+        binChunkHeader.flip();
+
+        ByteBuffer[] chunks = new ByteBuffer[3 + binarySegments.size()];
+        chunks[0] = header;
+        chunks[1] = ByteBuffer.wrap(paddedJsonData);
+        chunks[2] = binChunkHeader;
+        for (int i = 0; i < binarySegments.size(); i++) {
+            // geometryData 已写到 limit，从头整段输出
+            chunks[3 + i] = binarySegments.get(i).duplicate().rewind();
         }
 
-        try (FileOutputStream fos = new FileOutputStream(filePath)) {
-            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
-            
-            // GLB文件头 (12字节)
-            header.putInt(GLB_MAGIC);           // 4字节: "glTF"
-            header.putInt(GLB_VERSION);        // 4字节: 版本 2
-            header.putInt(12 + 8 + paddedJsonData.length + 8 + binaryData.size()); // 4字节: 总长度
-            
-            fos.write(header.array());
-            
-            // JSON块 (12 + JSON数据长度)
-            ByteBuffer jsonChunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
-            jsonChunkHeader.putInt(paddedJsonData.length); // 4字节: JSON块长度
-            jsonChunkHeader.putInt(GLB_JSON_CHUNK_TYPE); // 4字节: "JSON"
-            
-            fos.write(jsonChunkHeader.array());
-            fos.write(paddedJsonData);
-            
-            // 二进制块 (8 + 二进制数据长度)
-            ByteBuffer binChunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
-            binChunkHeader.putInt(binaryData.size()); // 4字节: 二进制块长度
-            binChunkHeader.putInt(GLB_BIN_CHUNK_TYPE); // 4字节: "BIN\0"
-            
-            fos.write(binChunkHeader.array());
-            fos.write(binaryData.toByteArray());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long remaining = 0;
+            for (ByteBuffer chunk : chunks) {
+                remaining += chunk.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(chunks);
+            }
         }
     }
 
     private String mapToJson(Map<String, Object> map) {
-        StringBuilder json = new StringBuilder();
+        StringBuilder json = new StringBuilder(64 * (accessors.size() + bufferViews.size() + 16));
+        appendMap(json, map);
+        return json.toString();
+    }
+
+    // 所有嵌套值追加到同一个 StringBuilder，避免每层拼接中间字符串
+    private void appendMap(StringBuilder json, Map<String, Object> map) {
         json.append("{");
-        
+
         boolean first = true;
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             if (!first) json.append(",");
             first = false;
-            
+
             json.append("\"").append(entry.getKey()).append("\":");
-            json.append(valueToJson(entry.getValue()));
+            appendValue(json, entry.getValue());
         }
-        
+
         json.append("}");
-        return json.toString();
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private String valueToJson(Object value) {
-        if (value == null) return "null";
-        if (value instanceof Map) return mapToJson((Map<String, Object>) value);
-        if (value instanceof List<?> list) return arrayToJson(list);
-        if (value instanceof String) return "\"" + value + "\"";
-        if (value instanceof Number) return value.toString();
-        if (value instanceof float[] floats) return arrayToJson(floats);
-        return "null";
-    }
-
-    private String arrayToJson(List<?> list) {
-        StringBuilder json = new StringBuilder();
+    private void appendValue(StringBuilder json, Object value) {
+        if (value == null) json.append("null");
+        else if (value instanceof Map) appendMap(json, (Map<String, Object>) value);
+        else if (value instanceof List<?> list) appendArray(json, list);
+        else if (value instanceof String) json.append("\"").append(value).append("\"");
+        else if (value instanceof Number) json.append(value);
+        else if (value instanceof float[] floats) appendArray(json, floats);
+        else json.append("null");
+    }
+
+    private void appendArray(StringBuilder json, List<?> list) {
         json.append("[");
-        
+
         for (int i = 0; i < list.size(); i++) {
             if (i > 0) json.append(",");
-            json.append(valueToJson(list.get(i)));
+            appendValue(json, list.get(i));
         }
-        
+
         json.append("]");
-        return json.toString();
     }
 
-    private String arrayToJson(float[] array) {
-        StringBuilder json = new StringBuilder();
+    private void appendArray(StringBuilder json, float[] array) {
         json.append("[");
-        
+
         for (int i = 0; i < array.length; i++) {
             if (i > 0) json.append(",");
             json.append(String.format("%.6f", array[i]));
         }
-        
+
         json.append("]");
-        return json.toString();
     }
 
     private int getComponentCount(String type) {
@@ -645,62 +866,14 @@ public class GlTFExporter {
         }
     }
 
-    private List<Float> getMinValues(List<Float> data, String type) {
-        int components = getComponentCount(type);
-        List<Float> min = new ArrayList<>();
-        
-        for (int i = 0; i < components; i++) {
-            min.add(data.get(i));
-        }
-        
-        for (int i = components; i < data.size(); i += components) {
-            for (int j = 0; j < components; j++) {
-                int idx = i + j;
-                if (idx < data.size()) {
-                    min.set(j, Math.min(min.get(j), data.get(idx)));
-                }
-            }
-        }
-        
-        return min;
-    }
-
-    private List<Float> getMaxValues(List<Float> data, String type) {
-        int components = getComponentCount(type);
-        List<Float> max = new ArrayList<>();
-        
-        for (int i = 0; i < components; i++) {
-            max.add(data.get(i));
-        }
-        
-        for (int i = components; i < data.size(); i += components) {
-            for (int j = 0; j < components; j++) {
-                int idx = i + j;
-                if (idx < data.size()) {
-                    max.set(j, Math.max(max.get(j), data.get(idx)));
-                }
-            }
-        }
-        
-        return max;
-    }
-
-    private List<Integer> getMinValues(int[] data) {
-        int min = data[0];
-        for (int value : data) {
-            min = Math.min(min, value);
+    private static List<Float> toList(float[] values) {
+        List<Float> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add(value);
         }
-        return Collections.singletonList(min);
+        return list;
     }
 
-    private List<Integer> getMaxValues(int[] data) {
-        int max = data[0];
-        for (int value : data) {
-            max = Math.max(max, value);
-        }
-        return Collections.singletonList(max);
-    }
-    
     /**
      * 从Texture创建PNG二进制数据
      */
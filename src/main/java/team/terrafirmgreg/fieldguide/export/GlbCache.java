@@ -0,0 +1,175 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import lombok.extern.slf4j.Slf4j;
+import team.terrafirmgreg.fieldguide.ContentHash;
+import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed GLB store kept between runs (CI restores it before building the site).
+ * Files are named by {@link GlTFExporter#fingerprint}, so a hit is always byte-identical to what a
+ * fresh export would write and a changed multiblock simply gets a new key; nothing is ever stale.
+ * <p>
+ * Next to each GLB, {@link #storeInputs} keeps what it was built from: the caller's input key
+ * (pattern + mapping + export options, salted with the generator fingerprint) and the content hash
+ * of every asset read while building the scene. {@link #lookup} answers from that alone, so a hit
+ * skips loading models and building the scene.
+ */
+@Slf4j
+public class GlbCache {
+
+    private static final String SUFFIX = ".glb";
+    private static final String INPUTS_SUFFIX = ".inputs.json";
+
+    private final Path dir;
+    /** Generator code fingerprint; a new build of the generator never reuses old input records. */
+    private final String generatorFingerprint;
+    /** File names requested this run, kept by {@link #prune}. */
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public GlbCache(Path dir) {
+        this(dir, "");
+    }
+
+    public GlbCache(Path dir, String generatorFingerprint) {
+        this.dir = dir;
+        this.generatorFingerprint = generatorFingerprint;
+    }
+
+    /**
+     * Inputs recorded for {@code inputKey}, if every asset they list still has the hash
+     * {@code assetHash} gives now and the GLB of their scene is still cached.
+     */
+    public Optional<Inputs> lookup(String inputKey, Function<String, String> assetHash) {
+        String inputsFile = inputsFile(inputKey);
+        used.add(inputsFile);
+        Path file = dir.resolve(inputsFile);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        Inputs inputs;
+        try {
+            inputs = JsonUtils.readFile(file.toFile(), Inputs.class);
+        } catch (Exception e) {
+            log.warn("Unreadable GLB inputs {}, rebuilding", file, e);
+            return Optional.empty();
+        }
+        if (inputs == null || inputs.scene() == null || inputs.assets() == null
+                || !Files.isRegularFile(dir.resolve(inputs.scene() + SUFFIX))) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, String> asset : inputs.assets().entrySet()) {
+            if (!asset.getValue().equals(assetHash.apply(asset.getKey()))) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(inputs);
+    }
+
+    /** Records that {@code inputKey} built scene {@code sceneHash} from {@code assets} (path to content hash). */
+    public void storeInputs(String inputKey, String sceneHash, Map<String, String> assets) throws IOException {
+        String inputsFile = inputsFile(inputKey);
+        used.add(inputsFile);
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, inputsFile, ".tmp");
+        try {
+            JsonUtils.writeFile(tmp.toFile(), new Inputs(sceneHash, new TreeMap<>(assets)));
+            move(tmp, dir.resolve(inputsFile));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Copies the cached GLB for {@code hash} to {@code target} (unless it is already there).
+     *
+     * @return {@code false} on a miss; the caller exports and then calls {@link #store}
+     */
+    public boolean restore(String hash, Path target) throws IOException {
+        used.add(hash + SUFFIX);
+        Path cached = dir.resolve(hash + SUFFIX);
+        if (!Files.isRegularFile(cached)) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    /** Adds a freshly exported GLB; written to a temp file first so an interrupted run never leaves a torn entry. */
+    public void store(String hash, Path glb) throws IOException {
+        used.add(hash + SUFFIX);
+        Path cached = dir.resolve(hash + SUFFIX);
+        if (Files.exists(cached)) {
+            return;
+        }
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, hash, ".tmp");
+        try {
+            Files.copy(glb, tmp, StandardCopyOption.REPLACE_EXISTING);
+            move(tmp, cached);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Deletes entries not requested during this run, so the cache tracks the current book instead of
+     * growing with every multiblock ever built. Only meaningful after a full (non-incremental) render.
+     *
+     * @return number of deleted files
+     */
+    public int prune() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        List<Path> stale;
+        try (Stream<Path> files = Files.list(dir)) {
+            stale = files.filter(file -> !used.contains(file.getFileName().toString())).toList();
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+        return stale.size();
+    }
+
+    private String inputsFile(String inputKey) {
+        return ContentHash.sha256().put(generatorFingerprint).put(inputKey).hex() + INPUTS_SUFFIX;
+    }
+
+    private static void move(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d hits, %d misses", dir, hits.get(), misses.get());
+    }
+
+    /** {@code <input key hash>.inputs.json}: the scene hash and the assets (path to content hash) it was built from. */
+    public record Inputs(String scene, Map<String, String> assets) {}
+}
@@ -1,31 +1,44 @@
 package team.terrafirmgreg.fieldguide.export;
 
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
-import team.terrafirmgreg.fieldguide.gson.JsonUtils;
 
 import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Reads {@code assets/icons/index.json} (field-guide atlas from field-guide-export).
+ * Reads {@code assets/icons/index.json} (field-guide atlas from field-guide-export) into an
+ * {@link IconTable}, or maps the table's binary sidecar when one was saved for the same index.
  */
 @Slf4j
 public class IconCatalog implements IconLookup {
 
-    private static final TypeToken<Map<String, Object>> INDEX_TYPE = new TypeToken<>() {};
-
     private static final String UNIFIED_KIND = "icons";
+    /** Decoded atlas pages kept by default: a 4096² ARGB page is 64 MB. */
+    private static final long DEFAULT_ATLAS_CACHE_BYTES = 256L * 1024 * 1024;
 
     private final Path exportRoot;
     private final Path iconsRoot;
-    private final Map<String, SpritePlacement> unified;
+    private final IconTable unified;
     private final MissingIconReport missingReport;
+    private final AtlasPageCache atlasPages = new AtlasPageCache(DEFAULT_ATLAS_CACHE_BYTES);
 
     public static final String MISSING_ICON_ID = "fieldguide:missing_icon";
     /** CSS class for field-guide sprites; must not collide with EMI {@code .icon-atlas}. */
@@ -34,7 +47,7 @@ public class IconCatalog implements IconLookup {
     private IconCatalog(
             Path exportRoot,
             Path iconsRoot,
-            Map<String, SpritePlacement> unified,
+            IconTable unified,
             MissingIconReport missingReport) {
         this.exportRoot = exportRoot;
         this.iconsRoot = iconsRoot;
@@ -47,8 +60,16 @@ public class IconCatalog implements IconLookup {
     }
 
     public static IconCatalog load(Path exportRoot, MissingIconReport missingReport) {
+        return load(exportRoot, missingReport, null);
+    }
+
+    /**
+     * @param indexCache binary sidecar of the parsed index, reused while {@code index.json} is
+     *                   unchanged and rewritten otherwise; {@code null} always parses the JSON
+     */
+    public static IconCatalog load(Path exportRoot, MissingIconReport missingReport, Path indexCache) {
         Path iconsRoot = resolveIconsRoot(exportRoot);
-        Map<String, SpritePlacement> unified = loadAtlasIndex(iconsRoot);
+        IconTable unified = loadAtlasIndex(iconsRoot, indexCache);
         return new IconCatalog(exportRoot, iconsRoot, unified, missingReport);
     }
 
@@ -56,38 +77,88 @@ public class IconCatalog implements IconLookup {
         return exportRoot.resolve("assets/icons");
     }
 
-    private static Map<String, SpritePlacement> loadAtlasIndex(Path iconsRoot) {
+    private static IconTable loadAtlasIndex(Path iconsRoot, Path indexCache) {
         Path indexFile = iconsRoot.resolve("index.json");
         if (!Files.isRegularFile(indexFile)) {
-            return Map.of();
+            return IconTable.empty(UNIFIED_KIND, FIELD_GUIDE_ICON_CSS_CLASS);
+        }
+        if (indexCache != null) {
+            try {
+                IconTable cached = IconTable.read(indexCache, indexFile, UNIFIED_KIND, FIELD_GUIDE_ICON_CSS_CLASS);
+                if (cached != null) {
+                    log.debug("Icon index: {} ids from {}", cached.size(), indexCache);
+                    return cached;
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable icon index cache {}", indexCache, e);
+            }
         }
-        return readIndexFile(indexFile);
+        IconTable table = readIndexFile(indexFile);
+        if (indexCache != null) {
+            try {
+                table.write(indexCache, indexFile);
+            } catch (IOException e) {
+                log.warn("Failed to write icon index cache {}", indexCache, e);
+            }
+        }
+        return table;
     }
 
-    private static Map<String, SpritePlacement> readIndexFile(Path indexFile) {
-        try {
-            String json = Files.readString(indexFile);
-            Map<String, Object> root = JsonUtils.GSON.fromJson(json, INDEX_TYPE.getType());
-            if (root == null) {
-                return Map.of();
-            }
-            @SuppressWarnings("unchecked")
-            Map<String, Object> itemsMap = (Map<String, Object>) root.get("items");
-            if (itemsMap == null) {
-                return Map.of();
+    /** Streams {@code index.json}; {@code cellSize} may come before or after {@code items}. */
+    private static IconTable readIndexFile(Path indexFile) {
+        int cellSize = 32;
+        IconTable.Builder items = null;
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(indexFile))) {
+            if (ExportMeta.beginRoot(reader)) {
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("cellSize") && reader.peek() == JsonToken.NUMBER) {
+                        cellSize = reader.nextInt();
+                    } else if (name.equals("items") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        items = readPlacements(reader, IconTable.builder(0));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
             }
-            return SpritePlacement.parseMap(itemsMap, intValue(root.get("cellSize"), 32));
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             log.warn("Failed to read icon index {}", indexFile, e);
-            return Map.of();
+            return IconTable.empty(UNIFIED_KIND, FIELD_GUIDE_ICON_CSS_CLASS);
         }
+        return (items != null ? items.withCellSize(cellSize) : IconTable.builder(cellSize))
+                .build(UNIFIED_KIND, FIELD_GUIDE_ICON_CSS_CLASS);
     }
 
-    private static int intValue(Object value, int defaultValue) {
-        if (value instanceof Number n) {
-            return n.intValue();
+    private static IconTable.Builder readPlacements(JsonReader reader, IconTable.Builder out) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String id = reader.nextName();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            int page = 0;
+            int x = 0;
+            int y = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (reader.peek() != JsonToken.NUMBER) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (field) {
+                    case "page" -> page = (int) reader.nextDouble();
+                    case "x" -> x = (int) reader.nextDouble();
+                    case "y" -> y = (int) reader.nextDouble();
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            out.add(id, IconTable.pack(page, x, y));
         }
-        return defaultValue;
+        reader.endObject();
+        return out;
     }
 
     @Override
@@ -126,36 +197,96 @@ public class IconCatalog implements IconLookup {
     }
 
     public BufferedImage cropSprite(IconRef ref) throws IOException {
-        Path atlas = iconsRoot.resolve(ref.atlasFileName());
-        BufferedImage sheet = ImageIO.read(atlas.toFile());
+        return crop(atlasPage(ref.page()), ref);
+    }
+
+    /**
+     * Crops every ref, decoding each atlas page at most once (pages still in the cache are not
+     * decoded at all). With {@code parallel}, pages are cropped concurrently on the common pool.
+     *
+     * @return sprites in {@code refs} iteration order; duplicate refs share one image
+     */
+    public Map<IconRef, BufferedImage> cropSprites(Collection<IconRef> refs, boolean parallel) throws IOException {
+        Map<Integer, List<IconRef>> byPage = new TreeMap<>();
+        for (IconRef ref : refs) {
+            byPage.computeIfAbsent(ref.page(), k -> new ArrayList<>()).add(ref);
+        }
+        Map<IconRef, BufferedImage> cropped = new ConcurrentHashMap<>();
+        try {
+            (parallel ? byPage.entrySet().parallelStream() : byPage.entrySet().stream()).forEach(page -> {
+                try {
+                    BufferedImage sheet = atlasPage(page.getKey());
+                    for (IconRef ref : page.getValue()) {
+                        cropped.computeIfAbsent(ref, r -> crop(sheet, r));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Map<IconRef, BufferedImage> out = new LinkedHashMap<>();
+        for (IconRef ref : refs) {
+            out.put(ref, cropped.get(ref));
+        }
+        return out;
+    }
+
+    /** Caps the decoded atlas pages kept between crops; {@code 0} decodes every time. */
+    public void setAtlasCacheBytes(long maxBytes) {
+        atlasPages.setMaxBytes(maxBytes);
+    }
+
+    /** Atlas pages decoded so far (cache misses). */
+    public long atlasPagesDecoded() {
+        return atlasPages.decoded.sum();
+    }
+
+    private BufferedImage atlasPage(int page) throws IOException {
+        BufferedImage sheet = atlasPages.get(page);
+        if (sheet != null) {
+            return sheet;
+        }
+        Path atlas = iconsRoot.resolve(IconRef.atlasFileName(page));
+        BufferedImage decoded;
+        try (InputStream in = Files.newInputStream(atlas)) {
+            decoded = ImageIO.read(in);
+        }
+        if (decoded == null) {
+            throw new IOException("Unreadable atlas page " + atlas);
+        }
+        // ARGB once here so every crop is a plain pixel copy
+        if (decoded.getType() != BufferedImage.TYPE_INT_ARGB) {
+            BufferedImage argb = new BufferedImage(decoded.getWidth(), decoded.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = argb.createGraphics();
+            g.drawImage(decoded, 0, 0, null);
+            g.dispose();
+            decoded = argb;
+        }
+        atlasPages.put(page, decoded);
+        return decoded;
+    }
+
+    private static BufferedImage crop(BufferedImage sheet, IconRef ref) {
         int size = ref.cellSize();
         BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        out.getGraphics().drawImage(sheet, 0, 0, size, size, ref.x(), ref.y(), ref.x() + size, ref.y() + size, null);
+        Graphics2D g = out.createGraphics();
+        g.drawImage(sheet, 0, 0, size, size, ref.x(), ref.y(), ref.x() + size, ref.y() + size, null);
+        g.dispose();
         return out;
     }
 
     private Optional<IconRef> resolveUnified(String id) {
-        return resolveIn(unified, UNIFIED_KIND, id);
+        return resolveIn(unified, id);
     }
 
-    private Optional<IconRef> resolveIn(Map<String, SpritePlacement> map, String kind, String id) {
-        SpritePlacement placement = map.get(id);
-        if (placement == null) {
+    private Optional<IconRef> resolveIn(IconTable table, String id) {
+        Optional<IconRef> ref = table.find(id);
+        if (ref.isEmpty()) {
             missingReport.record(id);
-            return Optional.empty();
         }
-        String cssClass = cssClassFor(kind);
-        return Optional.of(new IconRef(kind, cssClass, id, placement.cellSize(), placement.page(), placement.x(), placement.y()));
-    }
-
-    private static String cssClassFor(String kind) {
-        return switch (kind) {
-            case UNIFIED_KIND -> FIELD_GUIDE_ICON_CSS_CLASS;
-            case "items" -> "item-icon-atlas";
-            case "block-items" -> "block-item-icon-atlas";
-            case "fluids" -> "fluid-icon-atlas";
-            default -> kind + "-icon-atlas";
-        };
+        return ref;
     }
 
     public MissingIconReport missingReport() {
@@ -166,23 +297,50 @@ public class IconCatalog implements IconLookup {
         return resolveIconsRoot(exportRoot);
     }
 
-    private record SpritePlacement(int cellSize, int page, int x, int y) {
+    /**
+     * Decoded atlas pages, least recently used evicted first once their pixels exceed
+     * {@code maxBytes}. Two threads missing the same page may both decode it; batch crops group by
+     * page, so that only happens with concurrent single crops.
+     */
+    private static final class AtlasPageCache {
+        private final LinkedHashMap<Integer, BufferedImage> pages = new LinkedHashMap<>(16, 0.75f, true);
+        private final LongAdder decoded = new LongAdder();
+        private long maxBytes;
+        private long bytes;
 
-        static Map<String, SpritePlacement> parseMap(Map<String, Object> raw, int defaultCellSize) {
-            java.util.Map<String, SpritePlacement> out = new java.util.TreeMap<>();
-            for (Map.Entry<String, Object> e : raw.entrySet()) {
-                if (e.getValue() instanceof Map<?, ?> m) {
-                    int page = number(m.get("page"));
-                    int x = number(m.get("x"));
-                    int y = number(m.get("y"));
-                    out.put(e.getKey(), new SpritePlacement(defaultCellSize, page, x, y));
-                }
+        AtlasPageCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized BufferedImage get(int page) {
+            return pages.get(page);
+        }
+
+        synchronized void put(int page, BufferedImage image) {
+            decoded.increment();
+            BufferedImage previous = pages.put(page, image);
+            if (previous != null) {
+                bytes -= sizeOf(previous);
+            }
+            bytes += sizeOf(image);
+            evict();
+        }
+
+        synchronized void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            evict();
+        }
+
+        private void evict() {
+            Iterator<BufferedImage> eldest = pages.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= sizeOf(eldest.next());
+                eldest.remove();
             }
-            return java.util.Collections.unmodifiableMap(out);
         }
 
-        private static int number(Object o) {
-            return o instanceof Number n ? n.intValue() : 0;
+        private static long sizeOf(BufferedImage image) {
+            return (long) image.getWidth() * image.getHeight() * 4;
         }
     }
 }
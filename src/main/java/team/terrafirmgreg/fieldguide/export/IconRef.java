@@ -17,6 +17,11 @@ public record IconRef(
     }
 
     public String atlasFileName() {
+        return atlasFileName(page);
+    }
+
+    /** Atlas page file name, e.g. {@code atlas-000.png}. */
+    public static String atlasFileName(int page) {
         return "atlas-%03d.png".formatted(page);
     }
 
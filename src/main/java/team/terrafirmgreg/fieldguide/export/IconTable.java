@@ -0,0 +1,229 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import team.terrafirmgreg.fieldguide.ContentHash;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Registry id → atlas placement, as an open-addressing table over parallel arrays.
+ * <p>
+ * Placements are packed into one {@code long} per id (page in the high half, x/y in 16 bits each)
+ * and every {@link IconRef} is built once up front, so a hit allocates nothing. The table can be
+ * saved as a binary sidecar ({@link #write}) and mapped back ({@link #read}) instead of parsing
+ * {@code index.json} again.
+ */
+final class IconTable {
+
+    private static final int MAGIC = 0x46474958; // "FGIX"
+    private static final int VERSION = 2;
+    /** Hex SHA-256 of the source {@code index.json}. */
+    private static final int SOURCE_HASH_BYTES = 64;
+    private static final int HEADER_BYTES = 4 * 2 + SOURCE_HASH_BYTES + 4 * 2;
+
+    private final int cellSize;
+    private final String[] ids;
+    private final long[] placements;
+    /** Entry index + 1 per slot, {@code 0} = empty; capacity is a power of two at most half full. */
+    private final int[] slots;
+    private final Optional<IconRef>[] refs;
+
+    @SuppressWarnings("unchecked")
+    private IconTable(int cellSize, String[] ids, long[] placements, String kind, String cssClass) {
+        this.cellSize = cellSize;
+        this.ids = ids;
+        this.placements = placements;
+        this.slots = new int[Math.max(2, Integer.highestOneBit(Math.max(1, ids.length) * 2 - 1) << 1)];
+        this.refs = new Optional[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            // a repeated id takes over its slot: last placement wins, as with the JSON map
+            slots[slotOf(ids[i])] = i + 1;
+            long packed = placements[i];
+            refs[i] = Optional.of(new IconRef(kind, cssClass, ids[i], cellSize, page(packed), x(packed), y(packed)));
+        }
+    }
+
+    static IconTable empty(String kind, String cssClass) {
+        return new IconTable(32, new String[0], new long[0], kind, cssClass);
+    }
+
+    static Builder builder(int cellSize) {
+        return new Builder(cellSize);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /** Prebuilt ref for {@code id}, or the shared {@link Optional#empty()} when the atlas has no such icon. */
+    Optional<IconRef> find(String id) {
+        int mask = slots.length - 1;
+        for (int slot = spread(id.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return Optional.empty();
+            }
+            if (ids[entry - 1].equals(id)) {
+                return refs[entry - 1];
+            }
+        }
+    }
+
+    /** Slot holding {@code id}, or the empty slot where it would go. */
+    private int slotOf(String id) {
+        int mask = slots.length - 1;
+        int slot = spread(id.hashCode()) & mask;
+        while (slots[slot] != 0 && !ids[slots[slot] - 1].equals(id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static long pack(int page, int x, int y) {
+        return ((long) page << 32) | ((long) (x & 0xFFFF) << 16) | (y & 0xFFFF);
+    }
+
+    private static int page(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int x(long packed) {
+        return (int) (packed >>> 16) & 0xFFFF;
+    }
+
+    private static int y(long packed) {
+        return (int) packed & 0xFFFF;
+    }
+
+    /**
+     * Saves the table tagged with the content hash of {@code source}; the sidecar is shared by every
+     * export a build is pointed at, and unpacked artifacts often share sizes and timestamps. Written
+     * to a temp file first so a concurrent or interrupted build never reads a torn sidecar.
+     */
+    void write(Path file, Path source) throws IOException {
+        byte[][] encoded = new byte[ids.length][];
+        int bytes = HEADER_BYTES;
+        for (int i = 0; i < ids.length; i++) {
+            encoded[i] = ids[i].getBytes(StandardCharsets.UTF_8);
+            bytes += 4 + encoded[i].length + 8;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .put(sourceHash(source))
+                .putInt(cellSize)
+                .putInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            buffer.putInt(encoded[i].length).put(encoded[i]).putLong(placements[i]);
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, buffer.array());
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Maps a sidecar written by {@link #write}.
+     *
+     * @return {@code null} when it is missing, truncated or corrupt, of another version, or was
+     *         written for a different {@code source} (content hash changed)
+     */
+    static IconTable read(Path file, Path source, String kind, String cssClass) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES
+                    || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION) {
+                return null;
+            }
+            byte[] hash = new byte[SOURCE_HASH_BYTES];
+            buffer.get(hash);
+            if (!Arrays.equals(hash, sourceHash(source))) {
+                return null;
+            }
+            Builder builder = new Builder(buffer.getInt());
+            int count = buffer.getInt();
+            // every entry is at least a length and a placement
+            if (count < 0 || count > buffer.remaining() / (4 + 8)) {
+                return null;
+            }
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining() - 8) {
+                    return null;
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                buffer.get(scratch, 0, length);
+                builder.add(new String(scratch, 0, length, StandardCharsets.UTF_8), buffer.getLong());
+            }
+            return builder.build(kind, cssClass);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static byte[] sourceHash(Path source) throws IOException {
+        return ContentHash.sha256().putFile(source).hex().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static final class Builder {
+        private int cellSize;
+        private String[] ids = new String[64];
+        private long[] placements = new long[64];
+        private int size;
+
+        private Builder(int cellSize) {
+            this.cellSize = cellSize;
+        }
+
+        Builder withCellSize(int cellSize) {
+            this.cellSize = cellSize;
+            return this;
+        }
+
+        Builder add(String id, long placement) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                placements = Arrays.copyOf(placements, size * 2);
+            }
+            ids[size] = id;
+            placements[size++] = placement;
+            return this;
+        }
+
+        IconTable build(String kind, String cssClass) {
+            return new IconTable(cellSize, Arrays.copyOf(ids, size),
+                    Arrays.copyOf(placements, size), kind, cssClass);
+        }
+    }
+}
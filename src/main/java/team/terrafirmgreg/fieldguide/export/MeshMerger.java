@@ -0,0 +1,107 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import team.terrafirmgreg.fieldguide.render3d.material.Material;
+import team.terrafirmgreg.fieldguide.render3d.math.Transform;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector2f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
+import team.terrafirmgreg.fieldguide.render3d.scene.Mesh;
+import team.terrafirmgreg.fieldguide.render3d.scene.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GLB 导出前的网格合并：同一 {@link Material} 的所有几何体烘焙到世界坐标后合并为一个 mesh，
+ * 位置/法线/UV 完全相同的顶点只保留一份。
+ * <p>
+ * {@code BaseModelBuilder} 按纹理缓存材质，多方块结构中同一纹理的所有方块共用一个 Material 实例，
+ * 合并后每种纹理只剩一个 glTF primitive（一次 draw call）。
+ */
+public final class MeshMerger {
+
+    private MeshMerger() {}
+
+    public static List<Geometry> merge(List<Geometry> geometries) {
+        // Material 未重写 equals，按实例分组；保持首次出现的顺序
+        Map<Material, MergedMesh> groups = new LinkedHashMap<>();
+        for (Geometry geometry : geometries) {
+            Mesh mesh = geometry.getMesh();
+            if (mesh == null || mesh.getVertexes() == null || mesh.getIndexes() == null
+                    || mesh.getIndexes().length == 0) {
+                continue;
+            }
+            groups.computeIfAbsent(geometry.getMaterial(), m -> new MergedMesh())
+                    .add(mesh, geometry.getWorldTransform());
+        }
+
+        List<Geometry> merged = new ArrayList<>(groups.size());
+        for (Map.Entry<Material, MergedMesh> entry : groups.entrySet()) {
+            merged.add(new Geometry(entry.getValue().toMesh(), entry.getKey()));
+        }
+        return merged;
+    }
+
+    /** 按 float 位模式比较的顶点键（-0.0 与 0.0 视为不同，只会少合并，不会错合并）。 */
+    private record VertexKey(int px, int py, int pz, int nx, int ny, int nz, int u, int v) {
+        static VertexKey of(Vector3f p, Vector3f n, Vector2f uv) {
+            return new VertexKey(
+                    Float.floatToIntBits(p.x), Float.floatToIntBits(p.y), Float.floatToIntBits(p.z),
+                    Float.floatToIntBits(n.x), Float.floatToIntBits(n.y), Float.floatToIntBits(n.z),
+                    Float.floatToIntBits(uv.x), Float.floatToIntBits(uv.y));
+        }
+    }
+
+    private static final class MergedMesh {
+        private final Map<VertexKey, Integer> vertexIndex = new HashMap<>();
+        private final List<Vector3f> positions = new ArrayList<>();
+        private final List<Vector3f> normals = new ArrayList<>();
+        private final List<Vector2f> texCoords = new ArrayList<>();
+        private int[] indexes = new int[64];
+        private int indexCount;
+
+        void add(Mesh mesh, Transform transform) {
+            Vertex[] vertexes = mesh.getVertexes();
+            int[] remap = new int[vertexes.length];
+            Arrays.fill(remap, -1);
+            for (int index : mesh.getIndexes()) {
+                int mapped = remap[index];
+                if (mapped < 0) {
+                    mapped = addVertex(vertexes[index], transform);
+                    remap[index] = mapped;
+                }
+                if (indexCount == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, indexCount * 2);
+                }
+                indexes[indexCount++] = mapped;
+            }
+        }
+
+        private int addVertex(Vertex vertex, Transform transform) {
+            Vector3f position = transform.transformVector(vertex.position, null);
+            Vector3f normal = transform.transformNormal(vertex.normal, null);
+            Vector2f texCoord = vertex.texCoord;
+            Integer existing = vertexIndex.putIfAbsent(VertexKey.of(position, normal, texCoord), positions.size());
+            if (existing != null) {
+                return existing;
+            }
+            positions.add(position);
+            normals.add(normal);
+            texCoords.add(texCoord);
+            return positions.size() - 1;
+        }
+
+        Mesh toMesh() {
+            return new Mesh(
+                    positions.toArray(new Vector3f[0]),
+                    Arrays.copyOf(indexes, indexCount),
+                    texCoords.toArray(new Vector2f[0]),
+                    normals.toArray(new Vector3f[0]),
+                    null);
+        }
+    }
+}
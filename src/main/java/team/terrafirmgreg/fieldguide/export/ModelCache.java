@@ -0,0 +1,144 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent load-once cache keyed by resource location.
+ * <p>
+ * Each key is loaded by exactly one thread; concurrent callers for the same key wait for that
+ * load instead of parsing again. Loaders may recurse into the cache for other keys (parent
+ * models), which {@link ConcurrentHashMap#computeIfAbsent} does not allow. Failed loads are not
+ * cached. With a positive {@code maxSize}, the oldest loaded entries are evicted first;
+ * {@link #pin pinned} entries never are.
+ */
+public class ModelCache<V> {
+
+    private final String name;
+    private final Map<String, FutureTask<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<String> loadOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger loadOrderSize = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile int maxSize;
+    /** Keys being loaded on this thread; a parent cycle would otherwise wait on itself forever. */
+    private final ThreadLocal<Set<String>> loading = ThreadLocal.withInitial(HashSet::new);
+
+    public ModelCache(String name) {
+        this(name, 0);
+    }
+
+    /** @param maxSize upper bound on loaded (non-pinned) entries; {@code <= 0} = unbounded */
+    public ModelCache(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        evictOverflow();
+    }
+
+    /** Built-in value that is always present and never evicted. */
+    public void pin(String key, V value) {
+        FutureTask<V> task = new FutureTask<>(() -> value);
+        task.run();
+        entries.put(key, task);
+    }
+
+    public V get(String key, Function<String, V> loader) {
+        FutureTask<V> task = entries.get(key);
+        if (task == null) {
+            FutureTask<V> created = new FutureTask<>(() -> loader.apply(key));
+            task = entries.putIfAbsent(key, created);
+            if (task == null) {
+                misses.increment();
+                loading.get().add(key);
+                V value;
+                try {
+                    created.run();
+                    value = await(created);
+                } catch (RuntimeException | Error e) {
+                    entries.remove(key, created);
+                    throw e;
+                } finally {
+                    loading.get().remove(key);
+                }
+                loadOrder.add(key);
+                loadOrderSize.incrementAndGet();
+                evictOverflow();
+                return value;
+            }
+        }
+        if (loading.get().contains(key)) {
+            throw new IllegalStateException("Recursive load of " + name + " entry: " + key);
+        }
+        hits.increment();
+        return await(task);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Stats stats() {
+        return new Stats(name, entries.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void evictOverflow() {
+        int limit = maxSize;
+        if (limit <= 0) {
+            return;
+        }
+        while (loadOrderSize.get() > limit) {
+            String oldest = loadOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            loadOrderSize.decrementAndGet();
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static <V> V await(FutureTask<V> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for model load", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public record Stats(String name, int size, long hits, long misses, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: size=%d hits=%d misses=%d evictions=%d hitRate=%.1f%%",
+                    name, size, hits, misses, evictions, hitRate() * 100);
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package team.terrafirmgreg.fieldguide.export;
 
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
 import team.terrafirmgreg.fieldguide.gson.JsonUtils;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,8 +22,7 @@ import java.util.Optional;
 @Slf4j
 public class MultiblockRegistry {
 
-    private static final TypeToken<Map<String, Object>> META_TYPE = new TypeToken<>() {};
-    private static final TypeToken<List<Map<String, Object>>> DEF_LIST_TYPE = new TypeToken<>() {};
+    private static final TypeToken<Map<String, Object>> DEF_TYPE = new TypeToken<>() {};
 
     private final Map<String, ResolvedMultiblock> byId;
 
@@ -31,37 +31,35 @@ public class MultiblockRegistry {
     }
 
     public static MultiblockRegistry load(Path exportRoot) {
-        Path metaFile = exportRoot.resolve("meta.json");
-        if (!Files.isRegularFile(metaFile)) {
-            return new MultiblockRegistry(Map.of());
+        return ExportMeta.load(exportRoot).getMultiblocks();
+    }
+
+    static MultiblockRegistry empty() {
+        return new MultiblockRegistry(Map.of());
+    }
+
+    /** {@code meta.json} {@code multiblockDefs}, one def object at a time (see {@link ExportMeta}). */
+    static MultiblockRegistry read(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return empty();
         }
-        try {
-            String json = Files.readString(metaFile);
-            Map<String, Object> meta = JsonUtils.GSON.fromJson(json, META_TYPE.getType());
-            if (meta == null) {
-                return new MultiblockRegistry(Map.of());
-            }
-            Object defs = meta.get("multiblockDefs");
-            if (defs == null) {
-                return new MultiblockRegistry(Map.of());
-            }
-            String defsJson = JsonUtils.GSON.toJson(defs);
-            List<Map<String, Object>> list = JsonUtils.GSON.fromJson(defsJson, DEF_LIST_TYPE.getType());
-            if (list == null) {
-                return new MultiblockRegistry(Map.of());
+        Map<String, ResolvedMultiblock> map = new LinkedHashMap<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
             }
-            Map<String, ResolvedMultiblock> map = new LinkedHashMap<>();
-            for (Map<String, Object> entry : list) {
-                ResolvedMultiblock resolved = fromDefEntry(entry);
-                if (resolved.id() != null) {
-                    map.put(resolved.id(), resolved);
-                }
+            Map<String, Object> entry = JsonUtils.GSON.fromJson(reader, DEF_TYPE.getType());
+            ResolvedMultiblock resolved = fromDefEntry(entry);
+            if (resolved.id() != null) {
+                map.put(resolved.id(), resolved);
             }
-            log.info("Loaded {} multiblock defs from meta.json", map.size());
-            return new MultiblockRegistry(Collections.unmodifiableMap(map));
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to read " + metaFile, e);
         }
+        reader.endArray();
+        log.info("Loaded {} multiblock defs from meta.json", map.size());
+        return new MultiblockRegistry(Collections.unmodifiableMap(map));
     }
 
     @SuppressWarnings("unchecked")
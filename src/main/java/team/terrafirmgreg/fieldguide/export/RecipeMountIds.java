@@ -1,5 +1,9 @@
 package team.terrafirmgreg.fieldguide.export;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -11,28 +15,29 @@ public final class RecipeMountIds {
     private RecipeMountIds() {
     }
 
-    @SuppressWarnings("unchecked")
-    public static Map<String, String> fromMeta(Map<String, Object> meta) {
-        if (meta == null || meta.isEmpty()) {
-            return Map.of();
-        }
-        Object refs = meta.get("refs");
-        if (!(refs instanceof Map<?, ?> refsMap)) {
-            return Map.of();
-        }
-        Object raw = refsMap.get("recipeMountIds");
-        if (!(raw instanceof Map<?, ?> mountMap)) {
+    /** The {@code refs.recipeMountIds} object itself, read from the {@code meta.json} stream. */
+    static Map<String, String> read(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
             return Map.of();
         }
         Map<String, String> out = new LinkedHashMap<>();
-        for (Map.Entry<?, ?> entry : mountMap.entrySet()) {
-            if (entry.getKey() instanceof String handbookId
-                    && entry.getValue() instanceof String mountId
-                    && !handbookId.isBlank()
-                    && !mountId.isBlank()) {
-                out.put(handbookId, mountId);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String handbookId = reader.nextName();
+            if (reader.peek() == JsonToken.STRING) {
+                put(out, handbookId, reader.nextString());
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
         return Map.copyOf(out);
     }
+
+    private static void put(Map<String, String> out, String handbookId, String mountId) {
+        if (!handbookId.isBlank() && !mountId.isBlank()) {
+            out.put(handbookId, mountId);
+        }
+    }
 }
@@ -1,36 +1,43 @@
 package team.terrafirmgreg.fieldguide.export;
 
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
-import team.terrafirmgreg.fieldguide.gson.JsonUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * Runtime-expanded tag members from {@code index/tag-members.json}.
+ * <p>
+ * Registry ids repeat across hundreds of tags, so every id is stored once in a table shared by all
+ * sections and each tag keeps an {@code int[]} of table indices (in file order). The reverse
+ * direction, which tags contain an id, is a CSR index per section built right after loading.
  */
 @Slf4j
 public class TagMemberIndex {
 
-    private static final TypeToken<Map<String, Object>> ROOT_TYPE = new TypeToken<>() {};
-    private static final TypeToken<Map<String, List<String>>> SECTION_TYPE = new TypeToken<>() {};
+    private final String[] ids;
+    private final Map<String, Integer> idIndex;
+    private final Section items;
+    private final Section blocks;
+    private final Section fluids;
 
-    private final Map<String, List<String>> itemMembers;
-    private final Map<String, List<String>> blockMembers;
-    private final Map<String, List<String>> fluidMembers;
-
-    private TagMemberIndex(
-            Map<String, List<String>> itemMembers,
-            Map<String, List<String>> blockMembers,
-            Map<String, List<String>> fluidMembers) {
-        this.itemMembers = itemMembers;
-        this.blockMembers = blockMembers;
-        this.fluidMembers = fluidMembers;
+    private TagMemberIndex(String[] ids, Map<String, Integer> idIndex, Section items, Section blocks, Section fluids) {
+        this.ids = ids;
+        this.idIndex = idIndex;
+        this.items = items;
+        this.blocks = blocks;
+        this.fluids = fluids;
     }
 
     public static TagMemberIndex load(Path exportRoot) {
@@ -39,47 +46,202 @@ public class TagMemberIndex {
             log.debug("No tag-members index at {}", indexFile);
             return empty();
         }
-        try {
-            String json = Files.readString(indexFile);
-            Map<String, Object> root = JsonUtils.GSON.fromJson(json, ROOT_TYPE.getType());
-            if (root == null) {
+        Interner interner = new Interner();
+        Section.Builder items = new Section.Builder();
+        Section.Builder blocks = new Section.Builder();
+        Section.Builder fluids = new Section.Builder();
+        // one streaming pass; member ids go straight into the shared table, other sections are skipped
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(indexFile))) {
+            if (!ExportMeta.beginRoot(reader)) {
                 return empty();
             }
-            return new TagMemberIndex(
-                    parseSection(root.get("items")),
-                    parseSection(root.get("blocks")),
-                    parseSection(root.get("fluids")));
-        } catch (IOException e) {
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "items" -> items.read(reader, interner);
+                    case "blocks" -> blocks.read(reader, interner);
+                    case "fluids" -> fluids.read(reader, interner);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | RuntimeException e) {
             throw new IllegalStateException("Failed to read " + indexFile, e);
         }
-    }
-
-    @SuppressWarnings("unchecked")
-    private static Map<String, List<String>> parseSection(Object section) {
-        if (section == null) {
-            return Map.of();
-        }
-        Map<String, List<String>> map = JsonUtils.GSON.fromJson(
-                JsonUtils.GSON.toJson(section), SECTION_TYPE.getType());
-        if (map == null || map.isEmpty()) {
-            return Map.of();
-        }
-        return Collections.unmodifiableMap(map);
+        String[] ids = interner.ids.toArray(String[]::new);
+        TagMemberIndex index = new TagMemberIndex(
+                ids, interner.index, items.build(ids.length), blocks.build(ids.length), fluids.build(ids.length));
+        log.debug("Loaded tag-members index: {} item / {} block / {} fluid tags over {} distinct ids",
+                index.items.tagIds.length, index.blocks.tagIds.length, index.fluids.tagIds.length, ids.length);
+        return index;
     }
 
     private static TagMemberIndex empty() {
-        return new TagMemberIndex(Map.of(), Map.of(), Map.of());
+        int[] none = new int[1];
+        Section section = new Section(new String[0], Map.of(), new int[0][], none, new int[0]);
+        return new TagMemberIndex(new String[0], Map.of(), section, section, section);
     }
 
     public List<String> getItemMembers(String tagId) {
-        return itemMembers.getOrDefault(tagId, List.of());
+        return members(items, tagId);
     }
 
     public List<String> getBlockMembers(String tagId) {
-        return blockMembers.getOrDefault(tagId, List.of());
+        return members(blocks, tagId);
     }
 
     public List<String> getFluidMembers(String tagId) {
-        return fluidMembers.getOrDefault(tagId, List.of());
+        return members(fluids, tagId);
+    }
+
+    /** Item tags listing {@code itemId} as a member, in file order. */
+    public List<String> getItemTags(String itemId) {
+        return tags(items, itemId);
+    }
+
+    public List<String> getBlockTags(String blockId) {
+        return tags(blocks, blockId);
+    }
+
+    public List<String> getFluidTags(String fluidId) {
+        return tags(fluids, fluidId);
+    }
+
+    private List<String> members(Section section, String tagId) {
+        Integer tag = section.tagIndex.get(tagId);
+        if (tag == null) {
+            return List.of();
+        }
+        int[] postings = section.postings[tag];
+        return new Names(ids, postings, 0, postings.length);
+    }
+
+    private List<String> tags(Section section, String id) {
+        Integer member = idIndex.get(id);
+        if (member == null) {
+            return List.of();
+        }
+        int from = section.reverseStart[member];
+        int to = section.reverseStart[member + 1];
+        return from == to ? List.of() : new Names(section.tagIds, section.reverseTags, from, to);
+    }
+
+    /** Registry id → table index, assigned in first-seen order. */
+    private static final class Interner {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+
+        int intern(String id) {
+            Integer existing = index.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            index.put(id, ids.size());
+            ids.add(id);
+            return ids.size() - 1;
+        }
+    }
+
+    /**
+     * One of {@code items}/{@code blocks}/{@code fluids}. {@code reverseTags[reverseStart[id] ..
+     * reverseStart[id + 1])} are the tags containing table id {@code id}; ids never seen in this
+     * section have an empty range.
+     */
+    private record Section(
+            String[] tagIds,
+            Map<String, Integer> tagIndex,
+            int[][] postings,
+            int[] reverseStart,
+            int[] reverseTags) {
+
+        private static final class Builder {
+            private final List<String> tagIds = new ArrayList<>();
+            private final List<int[]> postings = new ArrayList<>();
+
+            void read(JsonReader reader, Interner interner) throws IOException {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    return;
+                }
+                int[] buffer = new int[16];
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String tagId = reader.nextName();
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    int size = 0;
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() != JsonToken.STRING) {
+                            reader.skipValue();
+                            continue;
+                        }
+                        if (size == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, size * 2);
+                        }
+                        buffer[size++] = interner.intern(reader.nextString());
+                    }
+                    reader.endArray();
+                    tagIds.add(tagId);
+                    postings.add(Arrays.copyOf(buffer, size));
+                }
+                reader.endObject();
+            }
+
+            Section build(int idCount) {
+                String[] tags = tagIds.toArray(String[]::new);
+                int[][] lists = postings.toArray(int[][]::new);
+                Map<String, Integer> tagIndex = new HashMap<>(tags.length * 2);
+                int[] reverseStart = new int[idCount + 1];
+                for (int tag = 0; tag < tags.length; tag++) {
+                    // a repeated tag key keeps its last list, as the old map-based index did
+                    tagIndex.put(tags[tag], tag);
+                }
+                for (int tag : tagIndex.values()) {
+                    for (int id : lists[tag]) {
+                        reverseStart[id + 1]++;
+                    }
+                }
+                for (int id = 0; id < idCount; id++) {
+                    reverseStart[id + 1] += reverseStart[id];
+                }
+                int[] reverseTags = new int[reverseStart[idCount]];
+                int[] fill = Arrays.copyOf(reverseStart, idCount);
+                for (int tag = 0; tag < tags.length; tag++) {
+                    if (tagIndex.get(tags[tag]) == tag) {
+                        for (int id : lists[tag]) {
+                            reverseTags[fill[id]++] = tag;
+                        }
+                    }
+                }
+                return new Section(tags, tagIndex, lists, reverseStart, reverseTags);
+            }
+        }
+    }
+
+    /** Read-only view of {@code names[indices[from .. to)]}. */
+    private static final class Names extends AbstractList<String> implements RandomAccess {
+        private final String[] names;
+        private final int[] indices;
+        private final int from;
+        private final int to;
+
+        Names(String[] names, int[] indices, int from, int to) {
+            this.names = names;
+            this.indices = indices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int i) {
+            return names[indices[from + Objects.checkIndex(i, to - from)]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
     }
 }
@@ -0,0 +1,240 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import lombok.extern.slf4j.Slf4j;
+import team.terrafirmgreg.fieldguide.render3d.material.Material;
+import team.terrafirmgreg.fieldguide.render3d.material.RenderState;
+import team.terrafirmgreg.fieldguide.render3d.material.Texture;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector2f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector4f;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
+import team.terrafirmgreg.fieldguide.render3d.scene.Mesh;
+import team.terrafirmgreg.fieldguide.render3d.scene.Vertex;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场景级纹理图集：渲染状态相同的材质（通常只有 alpha-mask 与 blend 两类）的纹理打包进一张
+ * 2 的幂尺寸图集，UV 改写到图集坐标，材质合并为一个。配合 {@link MeshMerger}，
+ * 整个多方块结构只剩一到两个 primitive 和一到两张 PNG。
+ * <p>
+ * 每个纹理四周外扩 1 像素边缘像素，避免最近邻采样在贴图边缘取到相邻纹理；
+ * 图集不生成 mipmap（见 {@link Texture#isMipmaps()}），否则缩小时仍会串色。
+ */
+@Slf4j
+public final class TextureAtlas {
+
+    static final int MAX_SIZE = 4096;
+    private static final int PADDING = 1;
+
+    private TextureAtlas() {}
+
+    /** 材质中除纹理之外影响 glTF 输出的全部属性，相同者可以共用一张图集 */
+    private record MaterialKey(
+            boolean alphaTest,
+            float alphaFalloff,
+            RenderState.BlendMode blendMode,
+            RenderState.CullMode cullMode,
+            float shininess,
+            float r, float g, float b, float a) {
+
+        static MaterialKey of(Material material) {
+            RenderState state = material.getRenderState();
+            Vector4f diffuse = material.getDiffuse();
+            return new MaterialKey(
+                    state.isAlphaTest(), state.getAlphaFalloff(), state.getBlendMode(), state.getCullMode(),
+                    material.getShininess(), diffuse.x, diffuse.y, diffuse.z, diffuse.w);
+        }
+    }
+
+    /** 图集中一个纹理的位置（不含外扩边） */
+    record Tile(int x, int y, int width, int height) {}
+
+    record Layout(int width, int height, Map<Texture, Tile> tiles) {}
+
+    /** 返回与输入一一对应（顺序不变）的几何体列表，可打包的换成图集材质与新 UV */
+    public static List<Geometry> pack(List<Geometry> geometries) {
+        List<Geometry> result = new ArrayList<>(geometries);
+        Map<MaterialKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < geometries.size(); i++) {
+            Geometry geometry = geometries.get(i);
+            Material material = geometry.getMaterial();
+            if (material == null || material.getDiffuseMap() == null || geometry.getMesh() == null) {
+                continue;
+            }
+            groups.computeIfAbsent(MaterialKey.of(material), k -> new ArrayList<>()).add(i);
+        }
+
+        int atlasIndex = 0;
+        for (List<Integer> group : groups.values()) {
+            Layout layout = layout(distinctTextures(geometries, group));
+            if (layout == null) {
+                continue;
+            }
+            Material atlasMaterial = atlasMaterial(
+                    geometries.get(group.get(0)).getMaterial(), layout, "atlas_" + atlasIndex++ + ".png");
+            for (int i : group) {
+                Geometry geometry = geometries.get(i);
+                Tile tile = layout.tiles().get(geometry.getMaterial().getDiffuseMap());
+                result.set(i, remap(geometry, tile, layout, atlasMaterial));
+            }
+        }
+        return result;
+    }
+
+    private static List<Texture> distinctTextures(List<Geometry> geometries, List<Integer> group) {
+        Map<Texture, Boolean> seen = new IdentityHashMap<>();
+        List<Texture> textures = new ArrayList<>();
+        for (int i : group) {
+            Texture texture = geometries.get(i).getMaterial().getDiffuseMap();
+            if (seen.put(texture, Boolean.TRUE) == null) {
+                textures.add(texture);
+            }
+        }
+        return textures;
+    }
+
+    /**
+     * 计算图集布局；只有一个纹理或超出 {@link #MAX_SIZE} 时返回 {@code null}（保持原样）。
+     */
+    static Layout layout(List<Texture> textures) {
+        if (textures.size() < 2) {
+            return null;
+        }
+        List<Texture> sorted = new ArrayList<>(textures);
+        sorted.sort(Comparator.comparingInt((Texture t) -> t.getImage().getHeight()).reversed());
+
+        long area = 0;
+        for (Texture texture : sorted) {
+            area += (long) (texture.getImage().getWidth() + 2 * PADDING) * (texture.getImage().getHeight() + 2 * PADDING);
+        }
+        int width = nextPowerOfTwo((int) Math.ceil(Math.sqrt(area)));
+        int height = width;
+        while (width <= MAX_SIZE && height <= MAX_SIZE) {
+            Map<Texture, Tile> tiles = shelfPack(sorted, width, height);
+            if (tiles != null) {
+                return new Layout(width, height, tiles);
+            }
+            if (width <= height) {
+                width *= 2;
+            } else {
+                height *= 2;
+            }
+        }
+        log.debug("Texture atlas would exceed {}px for {} textures, keeping separate images", MAX_SIZE, textures.size());
+        return null;
+    }
+
+    private static Map<Texture, Tile> shelfPack(List<Texture> sorted, int width, int height) {
+        Map<Texture, Tile> tiles = new IdentityHashMap<>();
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        for (Texture texture : sorted) {
+            int w = texture.getImage().getWidth();
+            int h = texture.getImage().getHeight();
+            int paddedW = w + 2 * PADDING;
+            int paddedH = h + 2 * PADDING;
+            if (paddedW > width) {
+                return null;
+            }
+            if (x + paddedW > width) {
+                y += shelfHeight;
+                x = 0;
+                shelfHeight = 0;
+            }
+            if (y + paddedH > height) {
+                return null;
+            }
+            tiles.put(texture, new Tile(x + PADDING, y + PADDING, w, h));
+            x += paddedW;
+            shelfHeight = Math.max(shelfHeight, paddedH);
+        }
+        return tiles;
+    }
+
+    private static Material atlasMaterial(Material template, Layout layout, String name) {
+        BufferedImage atlas = new BufferedImage(layout.width(), layout.height(), BufferedImage.TYPE_INT_ARGB);
+        layout.tiles().forEach((texture, tile) -> drawTile(atlas, texture.getImage(), tile));
+
+        Texture texture = new Texture(atlas, name);
+        texture.setMipmaps(false);
+
+        Material material = new Material();
+        RenderState from = template.getRenderState();
+        RenderState to = material.getRenderState();
+        to.setAlphaTest(from.isAlphaTest());
+        to.setAlphaFalloff(from.getAlphaFalloff());
+        to.setBlendMode(from.getBlendMode());
+        to.setCullMode(from.getCullMode());
+        // 逐项对应 MaterialKey 的字段，漏一项同组材质导出时就会丢掉该属性
+        material.setShininess(template.getShininess());
+        Vector4f diffuse = template.getDiffuse();
+        material.getDiffuse().set(diffuse.x, diffuse.y, diffuse.z, diffuse.w);
+        material.setDiffuseMap(texture);
+        return material;
+    }
+
+    /** 绘制纹理并把边缘像素外扩到 {@link #PADDING} 宽的间隙中 */
+    private static void drawTile(BufferedImage atlas, BufferedImage image, Tile tile) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        for (int py = -PADDING; py < h + PADDING; py++) {
+            int sy = Math.min(Math.max(py, 0), h - 1);
+            for (int px = -PADDING; px < w + PADDING; px++) {
+                int sx = Math.min(Math.max(px, 0), w - 1);
+                atlas.setRGB(tile.x() + px, tile.y() + py, image.getRGB(sx, sy));
+            }
+        }
+    }
+
+    /**
+     * 纹理坐标 v 轴向上（见 {@code BaseModelBuilder.v2}），图像行号向下：
+     * 先换算到图集像素，再换回图集 UV。
+     */
+    private static Geometry remap(Geometry geometry, Tile tile, Layout layout, Material material) {
+        Mesh mesh = geometry.getMesh();
+        Vertex[] vertexes = mesh.getVertexes();
+        Vector3f[] positions = new Vector3f[vertexes.length];
+        Vector3f[] normals = new Vector3f[vertexes.length];
+        Vector4f[] colors = new Vector4f[vertexes.length];
+        Vector2f[] texCoords = new Vector2f[vertexes.length];
+        for (int i = 0; i < vertexes.length; i++) {
+            Vertex vertex = vertexes[i];
+            if (vertex == null) {
+                continue;
+            }
+            positions[i] = vertex.position;
+            normals[i] = vertex.normal;
+            colors[i] = vertex.color;
+            float u = clamp(vertex.texCoord.x);
+            float v = clamp(vertex.texCoord.y);
+            float atlasX = tile.x() + u * tile.width();
+            float atlasY = tile.y() + (1f - v) * tile.height();
+            texCoords[i] = new Vector2f(atlasX / layout.width(), 1f - atlasY / layout.height());
+        }
+
+        Geometry remapped = new Geometry(
+                new Mesh(positions, mesh.getIndexes(), texCoords, normals, colors), material);
+        remapped.getLocalTransform().set(geometry.getWorldTransform());
+        return remapped;
+    }
+
+    private static float clamp(float value) {
+        return Math.min(Math.max(value, 0f), 1f);
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+}
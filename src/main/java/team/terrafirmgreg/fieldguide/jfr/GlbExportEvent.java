@@ -0,0 +1,33 @@
+package team.terrafirmgreg.fieldguide.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One multiblock GLB written (or restored from the GLB cache) by {@code TextureRenderer}. */
+@Name("fieldguide.GlbExport")
+@Label("GLB Export")
+@Category({"Field Guide", "Assets"})
+@Description("Fingerprinting and writing one multiblock GLB")
+@StackTrace(false)
+public class GlbExportEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Source")
+    @Description("exported, cached (restored from --glb-cache-dir) or existing (already in the output); "
+            + "triangles are 0 when the cache matched the recorded inputs and the scene was not built")
+    public String source;
+
+    @Label("Triangles")
+    public int triangles;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,27 @@
+package team.terrafirmgreg.fieldguide.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One model lookup in {@code ExportModelLoader}; a miss includes parsing the model and its parents. */
+@Name("fieldguide.ModelResolve")
+@Label("Model Resolve")
+@Category({"Field Guide", "Assets"})
+@Description("Resolving a block state, block, item or parent model")
+@StackTrace(false)
+public class ModelResolveEvent extends Event {
+
+    @Label("Model")
+    public String modelId;
+
+    @Label("Kind")
+    @Description("blockstate, block, item or model")
+    public String kind;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
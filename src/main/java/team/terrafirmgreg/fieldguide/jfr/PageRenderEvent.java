@@ -0,0 +1,32 @@
+package team.terrafirmgreg.fieldguide.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code PageRenderer.renderPage} call, including any icons or GLBs the page produced.
+ * <p>
+ * Like the other events in this package it costs next to nothing unless a recording is running,
+ * e.g. {@code java -XX:StartFlightRecording=filename=build.jfr -jar field-guide-site.jar ...}, then
+ * {@code jfr print --events fieldguide.PageRender build.jfr} or JDK Mission Control.
+ */
+@Name("fieldguide.PageRender")
+@Label("Page Render")
+@Category({"Field Guide", "Render"})
+@Description("Rendering one Patchouli page of an entry to HTML")
+@StackTrace(false)
+public class PageRenderEvent extends Event {
+
+    @Label("Locale")
+    public String locale;
+
+    @Label("Entry")
+    public String entryId;
+
+    @Label("Page Type")
+    public String pageType;
+}
@@ -0,0 +1,31 @@
+package team.terrafirmgreg.fieldguide.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One FreeMarker page written by {@code SiteRenderer.generatePage}. */
+@Name("fieldguide.TemplateRender")
+@Label("Template Render")
+@Category({"Field Guide", "Site"})
+@Description("Processing one FreeMarker template into an HTML file")
+@StackTrace(false)
+public class TemplateRenderEvent extends Event {
+
+    @Label("Locale")
+    public String locale;
+
+    @Label("Template")
+    public String template;
+
+    @Label("Output")
+    public String outputFile;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
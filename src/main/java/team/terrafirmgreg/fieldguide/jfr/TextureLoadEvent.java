@@ -0,0 +1,29 @@
+package team.terrafirmgreg.fieldguide.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One PNG read and decoded by {@code ExportModelLoader.loadTexture}. */
+@Name("fieldguide.TextureLoad")
+@Label("Texture Load")
+@Category({"Field Guide", "Assets"})
+@Description("Reading and decoding one texture from the export")
+@StackTrace(false)
+public class TextureLoadEvent extends Event {
+
+    @Label("Texture")
+    public String texture;
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
 
 @Slf4j
 public class BaseModelBuilder {
@@ -42,6 +43,8 @@ public class BaseModelBuilder {
     protected static final Vector4f[] COLOR_DARK_GRAY = {DARK_GRAY, DARK_GRAY, DARK_GRAY, DARK_GRAY};
     protected static final Vector4f[] COLOR_DARK = {DARK, DARK, DARK, DARK};
 
+    public static final List<String> FACE_DIRECTIONS = List.of("down", "up", "north", "south", "west", "east");
+
     protected static final Vector3f UP = new Vector3f(0, 1, 0);
     protected static final Vector3f DOWN = new Vector3f(0, -1, 0);
     protected static final Vector3f EAST = new Vector3f(1, 0, 0);
@@ -51,6 +54,8 @@ public class BaseModelBuilder {
 
     protected ExportModelLoader assetLoader;
     protected Map<String, Material> materialCache = new HashMap<>();
+    // 纹理是否完全不透明（所有像素 alpha == 255），用于判断整方块能否遮挡相邻面
+    protected Map<String, Boolean> opaqueTextureCache = new HashMap<>();
 
     public BaseModelBuilder(ExportModelLoader assetLoader) {
         this.assetLoader = assetLoader;
@@ -65,14 +70,99 @@ public class BaseModelBuilder {
      * 构建模型节点
      */
     public Node buildModel(BlockModel blockModel) {
+        return buildModel(blockModel, Set.of());
+    }
+
+    /**
+     * 构建模型节点，跳过 {@code cullface} 落在 {@code culledFaces} 方向上的面（相邻方块已将其遮挡）
+     */
+    public Node buildModel(BlockModel blockModel, Set<String> culledFaces) {
         Map<String, String> textures = blockModel.getTextures();
         Node node = new Node();
         for (ModelElement element : blockModel.getElements()) {
-            buildNode(node, element, textures);
+            buildNode(node, element, textures, culledFaces);
         }
         return node;
     }
 
+    /**
+     * 解析方块模型（含 blockstate / tag），供需要先检查模型再构建的调用方使用
+     */
+    public BlockModel resolveModel(String modelId) {
+        return loadModel(modelId);
+    }
+
+    /**
+     * 是否为不透明整方块：存在一个未旋转的 0..16 立方体元素，六个面齐全且纹理完全不透明。
+     * 这样的方块会完全遮挡相邻方块朝向它的面。
+     */
+    public boolean isOpaqueFullCube(BlockModel blockModel) {
+        if (blockModel == null || !blockModel.hasElements()) {
+            return false;
+        }
+        for (ModelElement element : blockModel.getElements()) {
+            if (isFullCube(element) && hasOpaqueFaces(element, blockModel.getTextures())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFullCube(ModelElement element) {
+        double[] from = element.getFrom();
+        double[] to = element.getTo();
+        if (from == null || to == null || element.getFaces() == null) {
+            return false;
+        }
+        ElementRotation rotation = element.getRotation();
+        if (rotation != null && rotation.getAngle() != null && rotation.getAngle() != 0) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (from[i] != 0 || to[i] != 16) {
+                return false;
+            }
+        }
+        return element.getFaces().keySet().containsAll(FACE_DIRECTIONS);
+    }
+
+    private boolean hasOpaqueFaces(ModelElement element, Map<String, String> textures) {
+        try {
+            for (String dir : FACE_DIRECTIONS) {
+                String texture = getTexture(textures, element.getFaces().get(dir).getTexture());
+                recordTexture(texture);
+                if (isGlassTexture(texture)
+                        || !opaqueTextureCache.computeIfAbsent(texture, this::isOpaqueTexture)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("Cannot check face opacity: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isOpaqueTexture(String texture) {
+        try {
+            BufferedImage img = extractFirstFrameIfNeeded(
+                    assetLoader.loadTexture(new ExportAssetKey(texture, "textures", "assets", ".png")));
+            if (!img.getColorModel().hasAlpha()) {
+                return true;
+            }
+            for (int y = 0; y < img.getHeight(); y++) {
+                for (int x = 0; x < img.getWidth(); x++) {
+                    if ((img.getRGB(x, y) >>> 24) != 0xFF) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     /**
      * 加载模型 - 子类可以覆盖此方法以提供不同的加载逻辑
      */
@@ -84,6 +174,10 @@ public class BaseModelBuilder {
      * 构建节点元素 - 相同材质的Face组合为一个Mesh
      */
     public void buildNode(Node rootNode, ModelElement element, Map<String, String> textures) {
+        buildNode(rootNode, element, textures, Set.of());
+    }
+
+    public void buildNode(Node rootNode, ModelElement element, Map<String, String> textures, Set<String> culledFaces) {
         Map<String, ElementFace> faces = element.getFaces();
         if (faces == null || faces.isEmpty()) {
             return;
@@ -134,6 +228,9 @@ public class BaseModelBuilder {
         for (Map.Entry<String, ElementFace> entry : faces.entrySet()) {
             String dir = entry.getKey();
             ElementFace face = entry.getValue();
+            if (isCulled(face, culledFaces)) {
+                continue;
+            }
 
             String texture = getTexture(textures, face.getTexture());
 
@@ -175,6 +272,15 @@ public class BaseModelBuilder {
         }
     }
 
+    private static boolean isCulled(ElementFace face, Set<String> culledFaces) {
+        String cullface = face.getCullface();
+        if (cullface == null || culledFaces.isEmpty()) {
+            return false;
+        }
+        // "bottom" 是 "down" 的旧写法
+        return culledFaces.contains("bottom".equals(cullface) ? "down" : cullface);
+    }
+
     /**
      * 处理旋转
      */
@@ -368,9 +474,18 @@ public class BaseModelBuilder {
     protected Material makeMaterial(String texture, String overlayTexture) {
         // 创建唯一的缓存键，包含基础纹理和overlay纹理信息
         String cacheKey = overlayTexture != null ? texture + "_overlay_" + overlayTexture : texture;
+        // 缓存命中时不会再读纹理，但仍要记入加载器的读取记录（GLB 缓存按这些文件的内容失效）
+        recordTexture(texture);
+        if (overlayTexture != null) {
+            recordTexture(overlayTexture);
+        }
         return materialCache.computeIfAbsent(cacheKey, it -> createMaterial(texture, overlayTexture));
     }
     
+    private void recordTexture(String texture) {
+        assetLoader.recordRead(new ExportAssetKey(texture, "textures", "assets", ".png").getResourcePath());
+    }
+
     protected Material createMaterial(String texture, String overlayTexture) {
         // 直接在内存中生成纹理，不再保存到文件系统
         String fileName = texture.replace("assets/minecraft/textures/", "").replace(".png", "").replace(":", "_");
@@ -0,0 +1,362 @@
+package team.terrafirmgreg.fieldguide.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled Patchouli macro table: {@code DEFAULT_MACROS} + book macros merged once per book into a
+ * character trie, then every text is expanded to a fixed point in a single left-to-right scan
+ * instead of up to 10 passes of {@link String#replace} per macro.
+ * <p>
+ * Replacement text is pushed back in front of the unread input together with the last
+ * {@code maxKeyLength - 1} output characters, so macros produced by a replacement, or straddling
+ * it, are found in the same scan.
+ * <p>
+ * Disjoint matches can be replaced in any order with the same result, so the scan agrees with the
+ * sequential replace unless two matches overlap somewhere along the way (two keys at one position,
+ * or a key starting inside another, such as {@code /$} and {@code $(list} in {@code /$(list}).
+ * The outcome then depends on which macro the replace loop applies first, i.e. on map order, and
+ * the scan's own path is not enough to rule it out, since the replace loop reaches intermediate
+ * texts the scan never builds. Each text is therefore checked up front for any overlap that could
+ * arise in any order ({@link #mayOverlap}) and, if one might, expanded by
+ * {@link TextFormatter#expandMacrosIteratively}. The same fallback covers chains deeper than the
+ * legacy 10-pass limit (each character remembers how many expansions produced it) and empty macro
+ * keys. With the default macros only {@code /$} overlaps anything, so book text rarely falls back.
+ */
+public final class MacroExpander {
+
+    private static final int MAX_PASSES = 10;
+    private static final MacroExpander DEFAULTS = compile(null);
+
+    private final Map<String, String> macros;
+    private final char[][] values;
+    private final Node root = new Node();
+    private final boolean[] asciiStart = new boolean[128];
+    private final int maxKeyLength;
+    private final boolean legacyOnly;
+    /**
+     * Merged text of every pair of overlapping keys ({@code /$} + {@code $(list} = {@code /$(list}),
+     * by first character; {@code null} when that character can be produced by a replacement, so
+     * an overlap cannot be ruled out from the input text alone.
+     */
+    private final Map<Character, List<String>> overlaps;
+
+    private MacroExpander(Map<String, String> macros) {
+        this.macros = macros;
+        this.values = new char[macros.size()][];
+        int maxLength = 0;
+        boolean emptyKey = false;
+        int index = 0;
+        for (Map.Entry<String, String> macro : macros.entrySet()) {
+            String key = macro.getKey();
+            String value = macro.getValue();
+            values[index] = value.toCharArray();
+            if (key.isEmpty()) {
+                emptyKey = true;
+            } else if (!key.equals(value)) {
+                // key -> key is a no-op for String.replace; leaving it out keeps the scan from looping
+                root.insert(key, index);
+                maxLength = Math.max(maxLength, key.length());
+                if (key.charAt(0) < 128) {
+                    asciiStart[key.charAt(0)] = true;
+                }
+            }
+            index++;
+        }
+        this.maxKeyLength = maxLength;
+        this.legacyOnly = emptyKey;
+        this.overlaps = overlaps(root.keys(), values);
+    }
+
+    private static Map<Character, List<String>> overlaps(List<String> keys, char[][] values) {
+        Map<Character, List<String>> overlaps = new HashMap<>();
+        for (String key : keys) {
+            for (String other : keys) {
+                for (int at = key.equals(other) ? 1 : 0; at < key.length(); at++) {
+                    String tail = key.substring(at);
+                    if (other.startsWith(tail) || tail.startsWith(other)) {
+                        String merged = tail.length() >= other.length() ? key : key.substring(0, at) + other;
+                        overlaps.computeIfAbsent(key.charAt(0), k -> new ArrayList<>()).add(merged);
+                    }
+                }
+            }
+        }
+        // the scan-time check relies on every such first character coming from the input text
+        for (char first : overlaps.keySet()) {
+            for (String key : keys) {
+                if (key.indexOf(first, 1) >= 0) {
+                    return null;
+                }
+            }
+            for (char[] value : values) {
+                if (new String(value).indexOf(first) >= 0) {
+                    return null;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /** Merges {@code bookMacros} over the Patchouli defaults (see {@link TextFormatter#mergeMacros}). */
+    public static MacroExpander compile(Map<String, String> bookMacros) {
+        return new MacroExpander(TextFormatter.mergeMacros(bookMacros));
+    }
+
+    /** Patchouli default macros only, for texts outside any book. */
+    public static MacroExpander defaults() {
+        return DEFAULTS;
+    }
+
+    public String expand(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (legacyOnly) {
+            return TextFormatter.expandMacrosIteratively(text, macros);
+        }
+        if (maxKeyLength == 0 || !mayContainMacro(text)) {
+            return text;
+        }
+        if (mayOverlap(text)) {
+            return TextFormatter.expandMacrosIteratively(text, macros);
+        }
+        String expanded = new Scan(text).run();
+        return expanded != null ? expanded : TextFormatter.expandMacrosIteratively(text, macros);
+    }
+
+    private boolean mayContainMacro(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || asciiStart[c]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether two matches may overlap at some point of some expansion order. The first character
+     * of an overlap only ever comes from {@code text} (see {@link #overlaps}) and is never moved,
+     * so it is enough to check what can follow each such character: text characters up to the
+     * first one a replacement might rewrite are fixed, anything after that is unknown.
+     */
+    private boolean mayOverlap(String text) {
+        if (overlaps == null) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            List<String> merged = overlaps.get(text.charAt(i));
+            if (merged != null) {
+                for (String candidate : merged) {
+                    if (mayFollow(text, i, candidate)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Whether {@code merged} may at some point start at {@code start}, which holds its first character. */
+    private boolean mayFollow(String text, int start, String merged) {
+        for (int j = 1; j < merged.length(); j++) {
+            int at = start + j;
+            if (at >= text.length()) {
+                return false;
+            }
+            if (mayBeRewritten(text, at)) {
+                return true;
+            }
+            if (text.charAt(at) != merged.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a macro may ever match at {@code at}: the text there spells a key, or a key prefix
+     * running into a character that could itself start a macro and be replaced.
+     */
+    private boolean mayBeRewritten(String text, int at) {
+        Node node = root;
+        for (int i = at; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (i > at && root.child(c) != null) {
+                return true;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return false;
+            }
+            if (node.macro >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unread input is a stack (top = next character) so replacements are prepended without copying
+     * the rest of the text; each character carries the number of expansions that produced it.
+     */
+    private final class Scan {
+        private char[] input;
+        private byte[] inputDepth;
+        private int top;
+        private char[] output;
+        private byte[] outputDepth;
+        private int length;
+
+        Scan(String text) {
+            int n = text.length();
+            input = new char[n + 16];
+            inputDepth = new byte[n + 16];
+            for (int i = 0; i < n; i++) {
+                input[i] = text.charAt(n - 1 - i);
+            }
+            top = n;
+            output = new char[n + 16];
+            outputDepth = new byte[n + 16];
+        }
+
+        /** @return the expanded text, or {@code null} when a chain exceeds the legacy pass limit */
+        String run() {
+            while (top > 0) {
+                char c = input[top - 1];
+                int macro = c < 128 && !asciiStart[c] ? -1 : match();
+                if (macro < 0) {
+                    append(c, inputDepth[top - 1]);
+                    top--;
+                    continue;
+                }
+                int keyLength = matchLength;
+                int depth = 0;
+                for (int i = 0; i < keyLength; i++) {
+                    depth = Math.max(depth, inputDepth[top - 1 - i]);
+                }
+                if (depth + 1 > MAX_PASSES) {
+                    return null;
+                }
+                top -= keyLength;
+                push(values[macro], (byte) (depth + 1));
+                // characters before the replacement may now start a macro that runs into it
+                int back = Math.min(length, maxKeyLength - 1);
+                for (int i = 0; i < back; i++) {
+                    length--;
+                    pushChar(output[length], outputDepth[length]);
+                }
+            }
+            return new String(output, 0, length);
+        }
+
+        private int matchLength;
+
+        /** Macro index matching at the top of the input (earliest in map order), or -1. */
+        private int match() {
+            Node node = root;
+            int best = -1;
+            for (int i = 0; i < top && node != null; i++) {
+                node = node.child(input[top - 1 - i]);
+                if (node != null && node.macro >= 0 && (best < 0 || node.macro < best)) {
+                    best = node.macro;
+                    matchLength = i + 1;
+                }
+            }
+            return best;
+        }
+
+        private void push(char[] value, byte depth) {
+            for (int i = value.length - 1; i >= 0; i--) {
+                pushChar(value[i], depth);
+            }
+        }
+
+        private void pushChar(char c, byte depth) {
+            if (top == input.length) {
+                input = Arrays.copyOf(input, top * 2);
+                inputDepth = Arrays.copyOf(inputDepth, top * 2);
+            }
+            input[top] = c;
+            inputDepth[top] = depth;
+            top++;
+        }
+
+        private void append(char c, byte depth) {
+            if (length == output.length) {
+                output = Arrays.copyOf(output, length * 2);
+                outputDepth = Arrays.copyOf(outputDepth, length * 2);
+            }
+            output[length] = c;
+            outputDepth[length] = depth;
+            length++;
+        }
+    }
+
+    /** Trie node; children kept as parallel sorted arrays (macro keys share few prefixes). */
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int macro = -1;
+
+        void insert(String key, int index) {
+            Node node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.getOrCreate(key.charAt(i));
+            }
+            if (node.macro < 0) {
+                node.macro = index;
+            }
+        }
+
+        /** Every key stored below this node. */
+        List<String> keys() {
+            List<String> keys = new ArrayList<>();
+            collect(new StringBuilder(), keys);
+            return keys;
+        }
+
+        private void collect(StringBuilder prefix, List<String> keys) {
+            if (macro >= 0) {
+                keys.add(prefix.toString());
+            }
+            for (int i = 0; i < labels.length; i++) {
+                prefix.append(labels[i]);
+                children[i].collect(prefix, keys);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node getOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node node = new Node();
+            labels = insertAt(labels, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = node;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return node;
+        }
+
+        private static char[] insertAt(char[] array, int at, char c) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = c;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package team.terrafirmgreg.fieldguide.render;
 
+import team.terrafirmgreg.fieldguide.data.minecraft.blockmodel.BlockModel;
 import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
 import team.terrafirmgreg.fieldguide.render3d.scene.Node;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static team.terrafirmgreg.fieldguide.render.BaseModelBuilder.v3;
 
@@ -31,26 +35,77 @@ public class MultiblockSceneBuilder {
         float startY = -height * 8f;
         float startZ = -col * 8f;
 
+        // 先解析整个网格，才能知道每个方块的邻居是否为不透明整方块
+        BlockModel[][][] models = new BlockModel[height][col][row];
+        boolean[][][] opaque = new boolean[height][col][row];
+        Map<BlockModel, Boolean> opaqueByModel = new IdentityHashMap<>();
         for (int y = 0; y < height; y++) {
             String[] layer = pattern[height - y - 1];
             for (int z = 0; z < col; z++) {
                 String line = layer[z];
                 for (int x = 0; x < row; x++) {
-                    char c = line.charAt(x);
-                    if (c == ' ') {
+                    String model = modelAt(line, x, mapping);
+                    if (model == null) {
                         continue;
                     }
-                    String model = mapping.get(String.valueOf(c));
-                    if (model == null || "AIR".equalsIgnoreCase(model) || "minecraft:air".equalsIgnoreCase(model)) {
+                    BlockModel blockModel = modelBuilder.resolveModel(model);
+                    models[y][z][x] = blockModel;
+                    opaque[y][z][x] = opaqueByModel.computeIfAbsent(blockModel, modelBuilder::isOpaqueFullCube);
+                }
+            }
+        }
+
+        int culled = 0;
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < col; z++) {
+                for (int x = 0; x < row; x++) {
+                    BlockModel blockModel = models[y][z][x];
+                    if (blockModel == null) {
                         continue;
                     }
+                    Set<String> culledFaces = occludedFaces(opaque, x, y, z);
+                    culled += culledFaces.size();
                     Vector3f location = v3(x * 16 + startX, y * 16 + startY, z * 16 + startZ);
-                    Node node = modelBuilder.buildModel(model);
+                    Node node = modelBuilder.buildModel(blockModel, culledFaces);
                     node.getLocalTransform().setTranslation(location);
                     root.attachChild(node);
                 }
             }
         }
+        log.debug("Culled {} block sides hidden by neighbouring opaque blocks", culled);
         return root;
     }
+
+    private static String modelAt(String line, int x, Map<String, String> mapping) {
+        char c = line.charAt(x);
+        if (c == ' ') {
+            return null;
+        }
+        String model = mapping.get(String.valueOf(c));
+        if (model == null || "AIR".equalsIgnoreCase(model) || "minecraft:air".equalsIgnoreCase(model)) {
+            return null;
+        }
+        return model;
+    }
+
+    /**
+     * 被相邻不透明整方块遮挡的方向。网格轴与模型坐标一致：x 向东，y 向上，z 向南。
+     */
+    static Set<String> occludedFaces(boolean[][][] opaque, int x, int y, int z) {
+        Set<String> faces = new HashSet<>();
+        if (isOpaque(opaque, x, y - 1, z)) faces.add("down");
+        if (isOpaque(opaque, x, y + 1, z)) faces.add("up");
+        if (isOpaque(opaque, x, y, z - 1)) faces.add("north");
+        if (isOpaque(opaque, x, y, z + 1)) faces.add("south");
+        if (isOpaque(opaque, x - 1, y, z)) faces.add("west");
+        if (isOpaque(opaque, x + 1, y, z)) faces.add("east");
+        return faces;
+    }
+
+    private static boolean isOpaque(boolean[][][] opaque, int x, int y, int z) {
+        return y >= 0 && y < opaque.length
+                && z >= 0 && z < opaque[y].length
+                && x >= 0 && x < opaque[y][z].length
+                && opaque[y][z][x];
+    }
 }
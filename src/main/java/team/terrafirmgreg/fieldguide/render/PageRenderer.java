@@ -8,9 +8,13 @@ import team.terrafirmgreg.fieldguide.data.patchouli.page.*;
 import team.terrafirmgreg.fieldguide.data.tfc.page.*;
 import team.terrafirmgreg.fieldguide.exception.InternalException;
 import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+import team.terrafirmgreg.fieldguide.jfr.PageRenderEvent;
 import team.terrafirmgreg.fieldguide.localization.I18n;
 import team.terrafirmgreg.fieldguide.localization.LocalizationManager;
+import team.terrafirmgreg.fieldguide.site.BuildReport;
 import team.terrafirmgreg.fieldguide.site.emi.EmiRecipeIndex;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.text.MessageFormat;
@@ -29,7 +33,13 @@ public class PageRenderer {
     private final EmiRecipeIndex emiRecipes;
     /** Handbook recipe id → EMI recipe id for {@code data-recipe-id}. */
     private final Map<String, String> recipeMountIds;
-    private Map<String, String> bookMacros = Map.of();
+    @Getter
+    private MacroExpander macros = MacroExpander.defaults();
+    /** Reused by every {@link #formatText} call; a PageRenderer renders one locale on one thread. */
+    private final StringBuilder textScratch = new StringBuilder(1024);
+    /** Per page type timings for {@code build-report.json}; {@code null} = not measured. */
+    @Setter
+    private BuildReport.LocaleReport timings;
 
     private int id = 0;
 
@@ -46,11 +56,28 @@ public class PageRenderer {
         this.recipeMountIds = recipeMountIds == null ? Map.of() : Map.copyOf(recipeMountIds);
     }
 
-    public void setBookMacros(Map<String, String> bookMacros) {
-        this.bookMacros = bookMacros != null ? Map.copyOf(bookMacros) : Map.of();
+    /** Book macros compiled once per book and shared by every page (see {@link MacroExpander}). */
+    public void setMacros(MacroExpander macros) {
+        this.macros = macros != null ? macros : MacroExpander.defaults();
     }
 
     public void renderPage(BookEntry entry, BookPage page) {
+        PageRenderEvent event = new PageRenderEvent();
+        event.begin();
+        try (BuildReport.Span ignored = timings != null ? timings.page(page.getType()) : null) {
+            renderPageContent(entry, page);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.locale = localizationManager.getCurrentLanguage().getKey();
+                event.entryId = entry.getId();
+                event.pageType = page.getType();
+                event.commit();
+            }
+        }
+    }
+
+    private void renderPageContent(BookEntry entry, BookPage page) {
         String pageType = page.getType();
         String anchor = page.getAnchor();
         if (anchor != null) {
@@ -134,7 +161,9 @@ public class PageRenderer {
 
     public void formatText(BookEntry entry, List<String> buffer, String text) {
         if (text != null && !text.isEmpty()) {
-            TextFormatter.formatText(buffer, text, localizationManager, bookMacros);
+            textScratch.setLength(0);
+            TextFormatter.formatText(textScratch, text, localizationManager, macros);
+            buffer.add(textScratch.toString());
 
             entry.addSearchContent(TextFormatter.searchStrip(text));
         }
@@ -8,7 +8,6 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -102,10 +101,10 @@ public class TextFormatter {
     }
 
     private static final Pattern SEARCH_STRIP_PATTERN = Pattern.compile("\\$\\([^)]*\\)");
-    private static final Pattern FORMATTING_PATTERN = Pattern.compile("(\\$\\(([^)]*)\\))|§(.)");
+    /** Only runs when the text contains its literal prefix {@code $\}. */
     private static final Pattern OL_PATTERN = Pattern.compile("\\$\\\\(br\\\\) {2}[0-9+]. ");
 
-    private final List<String> buffer;
+    private final StringBuilder out;
     private final Map<String, String> keybindings;
     private String root;
     /** Inline closers only — never structural tags like {@code </li>}. */
@@ -114,18 +113,18 @@ public class TextFormatter {
     private boolean externalLinkOpen;
 
     public TextFormatter(
-            List<String> buffer,
+            StringBuilder out,
             String text,
             LocalizationManager localizationManager,
-            Map<String, String> bookMacros) {
-        this.buffer = buffer;
+            MacroExpander macros) {
+        this.out = out;
         this.localizationManager = localizationManager;
         this.keybindings = localizationManager != null ? localizationManager.getKeybindings() : new HashMap<>();
         this.root = "p";
         this.inlineStack = new ArrayList<>();
 
-        this.buffer.add("<p>");
-        processText(expandMacros(text, bookMacros));
+        this.out.append("<p>");
+        processText((macros != null ? macros : MacroExpander.defaults()).expand(text));
     }
 
     public static Map<String, String> mergeMacros(Map<String, String> bookMacros) {
@@ -136,12 +135,13 @@ public class TextFormatter {
         return merged;
     }
 
-    /** Patchouli {@code BookTextParser.expandMacros}. */
+    /** Patchouli {@code BookTextParser.expandMacros}; compile a {@link MacroExpander} once when expanding many texts. */
     public static String expandMacros(String text, Map<String, String> bookMacros) {
-        if (text == null) {
-            return "";
-        }
-        Map<String, String> macros = mergeMacros(bookMacros);
+        return MacroExpander.compile(bookMacros).expand(text);
+    }
+
+    /** Patchouli's replace-until-stable loop over already merged {@code macros}; reference for {@link MacroExpander}. */
+    static String expandMacrosIteratively(String text, Map<String, String> macros) {
         String actualText = text;
         for (int i = 0; i < 10; i++) {
             String newText = actualText;
@@ -165,7 +165,7 @@ public class TextFormatter {
     }
 
     public static void formatText(List<String> buffer, String text, LocalizationManager localizationManager) {
-        formatText(buffer, text, localizationManager, null);
+        formatText(buffer, text, localizationManager, MacroExpander.defaults());
     }
 
     public static void formatText(
@@ -173,41 +173,86 @@ public class TextFormatter {
             String text,
             LocalizationManager localizationManager,
             Map<String, String> bookMacros) {
-        new TextFormatter(buffer, text, localizationManager, bookMacros);
+        formatText(buffer, text, localizationManager, MacroExpander.compile(bookMacros));
     }
 
-    private void processText(String text) {
-        text = OL_PATTERN.matcher(text).replaceAll("$(ol)");
+    public static void formatText(
+            List<String> buffer,
+            String text,
+            LocalizationManager localizationManager,
+            MacroExpander macros) {
+        StringBuilder out = new StringBuilder(text != null ? text.length() + (text.length() >> 1) : 16);
+        formatText(out, text, localizationManager, macros);
+        buffer.add(out.toString());
+    }
 
-        int cursor = 0;
-        Matcher matcher = FORMATTING_PATTERN.matcher(text);
+    /** Appends the HTML for {@code text} to {@code out}; callers may reuse one builder across texts. */
+    public static void formatText(
+            StringBuilder out,
+            String text,
+            LocalizationManager localizationManager,
+            MacroExpander macros) {
+        new TextFormatter(out, text, localizationManager, macros);
+    }
 
-        while (matcher.find()) {
-            int start = matcher.start();
-            int end = matcher.end();
+    /**
+     * Single pass over {@code $(key)} and {@code §x} codes; plain runs are copied straight into
+     * {@link #out}. Same matches as the former {@code (\$\(([^)]*)\))|§(.)} regex: a {@code $(} with
+     * no later {@code )} is literal text, and {@code §} takes the next code point unless it is a line
+     * terminator.
+     */
+    private void processText(String text) {
+        if (text.contains("$\\")) {
+            text = OL_PATTERN.matcher(text).replaceAll("$(ol)");
+        }
 
-            String key = matcher.group(2);
-            if (key == null) {
-                key = matcher.group(3);
+        int length = text.length();
+        int cursor = 0;
+        int i = 0;
+        // past the last ')' no "$(" can close, so the scan stops looking for one
+        int lastClose = text.lastIndexOf(')');
+        while (i < length) {
+            char c = text.charAt(i);
+            int keyStart;
+            int keyEnd;
+            int end;
+            if (c == '$' && i + 1 < lastClose && text.charAt(i + 1) == '(') {
+                keyStart = i + 2;
+                keyEnd = text.indexOf(')', keyStart);
+                end = keyEnd + 1;
+            } else if (c == '§' && i + 1 < length && !isLineTerminator(text.charAt(i + 1))) {
+                keyStart = i + 1;
+                keyEnd = Character.isHighSurrogate(text.charAt(keyStart)) && keyStart + 1 < length
+                        && Character.isLowSurrogate(text.charAt(keyStart + 1)) ? keyStart + 2 : keyStart + 1;
+                end = keyEnd;
+            } else {
+                i++;
+                continue;
             }
 
-            if (start > cursor) {
-                buffer.add(text.substring(cursor, start));
+            if (i > cursor) {
+                out.append(text, cursor, i);
             }
 
-            processFormattingKey(key, text, end);
+            processFormattingKey(text.substring(keyStart, keyEnd), text, end);
 
             cursor = end;
+            i = end;
         }
 
-        if (cursor < text.length()) {
-            buffer.add(text.substring(cursor));
+        if (cursor < length) {
+            out.append(text, cursor, length);
         }
 
         flushInlineStack();
         updateRoot("");
     }
 
+    /** Line terminators {@code .} does not match in a default (non-DOTALL) regex. */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
     private void processFormattingKey(String key, String text, int end) {
         if (key.isEmpty() || key.equals("reset") || key.equals("clear")) {
             resetInlineFormatting();
@@ -253,7 +298,7 @@ public class TextFormatter {
         } else if (key.equals("/c")) {
             closeCommand();
         } else if (key.equals("playername")) {
-            buffer.add("<span class=\"patchouli-playername\">Player</span>");
+            out.append("<span class=\"patchouli-playername\">Player</span>");
         } else if (key.startsWith("#")) {
             colorTags(normalizeHexColor(key));
         } else if (key.equals("d")) {
@@ -267,7 +312,7 @@ public class TextFormatter {
             appendKeybind(key.substring(2));
         } else {
             log.debug("Unrecognized Formatting Code $({}), leaving literal", key);
-            buffer.add("$(" + key + ")");
+            out.append("$(" + key + ")");
         }
     }
 
@@ -282,7 +327,7 @@ public class TextFormatter {
     private void lineBreak(int count) {
         if (inListRoot()) {
             for (int i = 0; i < count; i++) {
-                buffer.add("<br/>\n");
+                out.append("<br/>\n");
             }
             return;
         }
@@ -297,26 +342,26 @@ public class TextFormatter {
 
     private void appendKeybind(String keybindKey) {
         if (keybindings.containsKey(keybindKey)) {
-            buffer.add(keybindings.get(keybindKey));
+            out.append(keybindings.get(keybindKey));
         } else if (localizationManager != null) {
             String translated = localizationManager.translate(keybindKey);
             if (translated != null && !translated.equals(keybindKey)) {
-                buffer.add("<span class=\"keybind\" style=\"color:#333;\">");
-                buffer.add(translated);
-                buffer.add("</span>");
+                out.append("<span class=\"keybind\" style=\"color:#333;\">");
+                out.append(translated);
+                out.append("</span>");
             } else {
-                buffer.add("<span class=\"keybind\" style=\"color:#888;font-style:italic;\" title=\"");
-                buffer.add(escapeAttr(keybindKey));
-                buffer.add("\">");
-                buffer.add("未配置");
-                buffer.add("</span>");
+                out.append("<span class=\"keybind\" style=\"color:#888;font-style:italic;\" title=\"");
+                out.append(escapeAttr(keybindKey));
+                out.append("\">");
+                out.append("未配置");
+                out.append("</span>");
             }
         } else {
-            buffer.add("<span class=\"keybind\" style=\"color:#666;font-style:italic;\" title=\"");
-            buffer.add(escapeAttr(keybindKey));
-            buffer.add("\">");
-            buffer.add(keybindKey);
-            buffer.add("</span>");
+            out.append("<span class=\"keybind\" style=\"color:#666;font-style:italic;\" title=\"");
+            out.append(escapeAttr(keybindKey));
+            out.append("\">");
+            out.append(keybindKey);
+            out.append("</span>");
         }
     }
 
@@ -340,7 +385,7 @@ public class TextFormatter {
     }
 
     private void matchingTags(String start, String end) {
-        buffer.add(start);
+        out.append(start);
         inlineStack.add(end);
     }
 
@@ -368,7 +413,7 @@ public class TextFormatter {
     /** Close inline tags only (Patchouli reset / end of span cluster). */
     private void flushInlineStack() {
         for (int i = inlineStack.size() - 1; i >= 0; i--) {
-            buffer.add(inlineStack.get(i));
+            out.append(inlineStack.get(i));
         }
         inlineStack.clear();
     }
@@ -385,7 +430,7 @@ public class TextFormatter {
     }
 
     private void appendExternalLinkMarker() {
-        buffer.add("<span class=\"patchouli-external-link\" aria-hidden=\"true\">\u21AA</span>");
+        out.append("<span class=\"patchouli-external-link\" aria-hidden=\"true\">\u21AA</span>");
         externalLinkOpen = false;
     }
 
@@ -393,7 +438,7 @@ public class TextFormatter {
     private boolean closeInlineTag(String closer) {
         for (int i = inlineStack.size() - 1; i >= 0; i--) {
             if (closer.equals(inlineStack.get(i))) {
-                buffer.add(inlineStack.remove(i));
+                out.append(inlineStack.remove(i));
                 return true;
             }
         }
@@ -403,7 +448,7 @@ public class TextFormatter {
     private void updateRoot(String newRoot) {
         Map<String, String> rootMap = ROOT_TAGS.get(root);
         if (rootMap != null && rootMap.containsKey(newRoot)) {
-            buffer.add(rootMap.get(newRoot));
+            out.append(rootMap.get(newRoot));
             root = newRoot;
         }
     }
@@ -10,11 +10,15 @@ import team.terrafirmgreg.fieldguide.data.tfc.page.PageMultiMultiblock;
 import team.terrafirmgreg.fieldguide.data.tfc.page.TFCMultiblockData;
 import team.terrafirmgreg.fieldguide.exception.InternalException;
 import team.terrafirmgreg.fieldguide.export.GlTFExporter;
+import team.terrafirmgreg.fieldguide.export.GlbCache;
 import team.terrafirmgreg.fieldguide.export.IconCatalog;
 import team.terrafirmgreg.fieldguide.export.IconRef;
+import team.terrafirmgreg.fieldguide.jfr.GlbExportEvent;
 import team.terrafirmgreg.fieldguide.localization.I18n;
 import team.terrafirmgreg.fieldguide.localization.LocalizationManager;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
 import team.terrafirmgreg.fieldguide.render3d.scene.Node;
+import team.terrafirmgreg.fieldguide.site.BuildReport;
 
 import javax.imageio.ImageIO;
 import java.awt.Graphics2D;
@@ -31,7 +35,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 
@@ -44,11 +53,29 @@ public class TextureRenderer {
     private final MultiblockSceneBuilder multiblockSceneBuilder;
     private final MultiblockRenderResolver multiblockResolver;
 
-    private final Map<String, String> IMAGE_CACHE = new HashMap<>();
+    /** Pack multiblock GLB textures into one atlas per render state (see {@link GlTFExporter#setPackAtlas}). */
+    @Setter
+    private boolean packGlbAtlas;
+
+    /** Persistent content-addressed GLB store shared by all locales; {@code null} exports every GLB. */
+    @Setter
+    private GlbCache glbCache;
+
+    /** GLB export and texture conversion timings for {@code build-report.json}; {@code null} = not measured. */
+    @Setter
+    private BuildReport.LocaleReport timings;
+
+    /** Kept for the renderer's lifetime (one locale, one thread) so its geometry buffer is reused across GLBs. */
+    private GlTFExporter glbExporter;
+
     private final Map<String, ItemImageResult> itemImageCache = new HashMap<>();
     private final Map<String, Integer> lastUid = new HashMap<>();
 
-    private static final Map<String, String> GLB_CACHE = new HashMap<>();
+    /** Converted images and GLBs are locale-independent; shared by every per-locale renderer. */
+    private static final Map<String, String> IMAGE_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, GlbOutput> GLB_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, Object> GLB_LOCKS = new ConcurrentHashMap<>();
+    private static final int GLB_NAME_HASH_LENGTH = 16;
 
     public TextureRenderer(ExportModelLoader loader, LocalizationManager localizationManager, IconCatalog iconCatalog) {
         this(loader, localizationManager, iconCatalog, null);
@@ -173,11 +200,12 @@ public class TextureRenderer {
 
     /** {@code patchouli:image} — crop/resize book textures for static HTML. */
     public String convertImage(String image) {
-        if (IMAGE_CACHE.containsKey(image)) {
-            return IMAGE_CACHE.get(image);
-        }
+        loader.recordRead(loader.getTextureKey(image).getResourcePath());
+        return IMAGE_CACHE.computeIfAbsent(image, this::renderImage);
+    }
 
-        try {
+    private String renderImage(String image) {
+        try (BuildReport.Span ignored = operation("texture-conversion")) {
             ExportAssetKey assetKey = loader.getTextureKey(image);
             BufferedImage img = loader.loadTexture(assetKey);
 
@@ -206,20 +234,19 @@ public class TextureRenderer {
             }
 
             nextId("image");
-            String ref = saveImage(assetKey.getResourcePath(), cropped);
-            IMAGE_CACHE.put(image, ref);
-            return ref;
+            return saveImage(assetKey.getResourcePath(), cropped);
         } catch (Exception e) {
             throw new InternalException("Failed to convert image: " + image + " - " + e.getMessage());
         }
     }
 
     public String convertIcon(String image) {
-        if (IMAGE_CACHE.containsKey(image)) {
-            return IMAGE_CACHE.get(image);
-        }
+        loader.recordRead(new ExportAssetKey(image, null, "assets", ".png").getResourcePath());
+        return IMAGE_CACHE.computeIfAbsent(image, this::renderIcon);
+    }
 
-        try {
+    private String renderIcon(String image) {
+        try (BuildReport.Span ignored = operation("texture-conversion")) {
             ExportAssetKey assetKey = new ExportAssetKey(image, null, "assets", ".png");
             BufferedImage img = loader.loadTexture(assetKey);
             int width = img.getWidth();
@@ -231,9 +258,7 @@ public class TextureRenderer {
             }
 
             BufferedImage resized = resizeImage(img, 64, 64);
-            String ref = saveImage(assetKey.getResourcePath(), resized);
-            IMAGE_CACHE.put(image, ref);
-            return ref;
+            return saveImage(assetKey.getResourcePath(), resized);
         } catch (Exception e) {
             throw new InternalException("Failed to convert icon: " + image + " - " + e.getMessage());
         }
@@ -265,18 +290,12 @@ public class TextureRenderer {
         if (!data.getMultiblocks().isEmpty()) {
             for (TFCMultiblockData block : data.getMultiblocks()) {
                 String cacheKey = generateCacheKey(block.getPattern(), block.getMapping());
-                if (GLB_CACHE.containsKey(cacheKey)) {
-                    glbPaths.add(GLB_CACHE.get(cacheKey));
-                    continue;
-                }
                 try {
-                    Node node = multiblockSceneBuilder.buildMultiblock(block.getPattern(), block.getMapping());
-                    String blockId = (block.getMultiblockId() != null
+                    String prefix = block.getMultiblockId() != null
                             ? block.getMultiblockId().replaceAll("\\W+", "_")
-                            : "block_") + cacheKey;
-                    String glbPath = exportGlb(node, "assets/generated/" + blockId + ".glb");
-                    GLB_CACHE.put(cacheKey, glbPath);
-                    glbPaths.add(glbPath);
+                            : "block_";
+                    glbPaths.add(cachedGlb(cacheKey, () -> exportGlb(cacheKey, prefix,
+                            () -> multiblockSceneBuilder.buildMultiblock(block.getPattern(), block.getMapping()))));
                 } catch (Exception e) {
                     log.error("Failed to generate GLB for multiblock: {}, error: {}", block.getMultiblockId(), e.getMessage());
                 }
@@ -306,23 +325,117 @@ public class TextureRenderer {
 
     public String generateMultiblockGLB(PageMultiblockData multiblock) throws Exception {
         String cacheKey = generateCacheKey(multiblock.getPattern(), multiblock.getMapping());
-        if (GLB_CACHE.containsKey(cacheKey)) {
-            return GLB_CACHE.get(cacheKey);
+        return cachedGlb(cacheKey, () -> exportGlb(cacheKey, "block_",
+                () -> multiblockSceneBuilder.buildMultiblock(multiblock.getPattern(), multiblock.getMapping())));
+    }
+
+    /**
+     * Locales rendered in parallel reach the same multiblocks at the same time; the per-key lock
+     * makes sure each GLB is built and written by exactly one thread. A hit still records the
+     * assets behind the GLB with the loader, like a build would.
+     */
+    private String cachedGlb(String cacheKey, Callable<GlbOutput> build) throws Exception {
+        GlbOutput cached = GLB_CACHE.get(cacheKey);
+        if (cached == null) {
+            synchronized (GLB_LOCKS.computeIfAbsent(cacheKey, k -> new Object())) {
+                cached = GLB_CACHE.get(cacheKey);
+                if (cached == null) {
+                    cached = build.call();
+                    GLB_CACHE.put(cacheKey, cached);
+                }
+            }
+        }
+        cached.assets().forEach(loader::recordRead);
+        return cached.path();
+    }
+
+    /**
+     * File names carry the scene's content hash, so an existing file is always up to date and a
+     * changed multiblock gets a new URL instead of a stale browser-cached one. With a
+     * {@link GlbCache}, the inputs recorded for {@code cacheKey} are checked first: when none of the
+     * assets the scene was built from changed, the GLB is restored without building the scene.
+     */
+    private GlbOutput exportGlb(String cacheKey, String prefix, Callable<Node> scene) throws Exception {
+        try (BuildReport.Span ignored = operation("glb-export")) {
+            GlbExportEvent event = new GlbExportEvent();
+            event.begin();
+            String inputKey = cacheKey + "atlas:" + packGlbAtlas;
+            Optional<GlbCache.Inputs> recorded = glbCache != null
+                    ? glbCache.lookup(inputKey, loader::assetHash)
+                    : Optional.empty();
+            Node node = null;
+            Set<String> assets;
+            String hash;
+            String source;
+            if (recorded.isPresent() && glbCache.restore(recorded.get().scene(), glbFile(prefix, recorded.get().scene()))) {
+                assets = recorded.get().assets().keySet();
+                hash = recorded.get().scene();
+                source = "cached";
+            } else {
+                loader.startRecording();
+                try {
+                    node = scene.call();
+                } finally {
+                    assets = loader.stopRecording();
+                }
+                if (glbExporter == null) {
+                    glbExporter = new GlTFExporter();
+                }
+                GlTFExporter exporter = glbExporter.setPackAtlas(packGlbAtlas);
+                hash = exporter.fingerprint(node);
+                Path outputPath = glbFile(prefix, hash);
+                if (glbCache != null && glbCache.restore(hash, outputPath)) {
+                    source = "cached";
+                } else {
+                    source = "existing";
+                    if (!Files.exists(outputPath)) {
+                        exporter.export(node, outputPath.toString());
+                        source = "exported";
+                    }
+                    if (glbCache != null) {
+                        glbCache.store(hash, outputPath);
+                    }
+                }
+                if (glbCache != null) {
+                    Map<String, String> assetHashes = new TreeMap<>();
+                    assets.forEach(path -> assetHashes.put(path, loader.assetHash(path)));
+                    glbCache.storeInputs(inputKey, hash, assetHashes);
+                }
+            }
+            String glbPath = glbPath(prefix, hash);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = glbPath;
+                event.source = source;
+                event.triangles = node != null ? triangleCount(node) : 0;
+                event.bytes = Files.size(glbFile(prefix, hash));
+                event.commit();
+            }
+            return new GlbOutput(glbPath, Set.copyOf(assets));
         }
-        Node node = multiblockSceneBuilder.buildMultiblock(multiblock.getPattern(), multiblock.getMapping());
-        String glbPath = exportGlb(node, "assets/generated/block_" + cacheKey + ".glb");
-        GLB_CACHE.put(cacheKey, glbPath);
-        return glbPath;
     }
 
-    private String exportGlb(Node node, String glbPath) throws Exception {
-        Path outputPath = loader.getOutputDir().resolve(glbPath);
-        if (!Files.exists(outputPath)) {
-            new GlTFExporter().export(node, outputPath.toString());
+    private static String glbPath(String prefix, String hash) {
+        return "assets/generated/" + prefix + hash.substring(0, GLB_NAME_HASH_LENGTH) + ".glb";
+    }
+
+    private Path glbFile(String prefix, String hash) {
+        return loader.getOutputDir().resolve(glbPath(prefix, hash));
+    }
+
+    private BuildReport.Span operation(String name) {
+        return timings != null ? timings.operation(name) : null;
+    }
+
+    private static int triangleCount(Node node) {
+        int triangles = 0;
+        for (Geometry geometry : node.getGeometryList(null)) {
+            triangles += geometry.getMesh().getIndexes().length / 3;
         }
-        return glbPath;
+        return triangles;
     }
 
+    /** Pattern + mapping; the in-run cache key, and with the export options the {@link GlbCache} input key. */
     private static String generateCacheKey(String[][] pattern, Map<String, String> mapping) {
         StringBuilder keyBuilder = new StringBuilder();
         for (String[] row : pattern) {
@@ -333,7 +446,7 @@ public class TextureRenderer {
                     .sorted()
                     .forEach(key -> keyBuilder.append(key).append(":").append(mapping.get(key)).append("|"));
         }
-        return Integer.toHexString(keyBuilder.toString().hashCode());
+        return keyBuilder.toString();
     }
 
     private static BufferedImage resizeImage(BufferedImage original, int targetWidth, int targetHeight) {
@@ -345,4 +458,7 @@ public class TextureRenderer {
         g2d.dispose();
         return resized;
     }
+
+    /** A written GLB and the assets its scene was built from. */
+    private record GlbOutput(String path, Set<String> assets) {}
 }
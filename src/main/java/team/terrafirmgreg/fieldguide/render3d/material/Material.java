@@ -24,6 +24,10 @@ public class Material {
         return shininess;
     }
 
+    public void setShininess(float shininess) {
+        this.shininess = shininess;
+    }
+
     public Texture getDiffuseMap() {
         return diffuseMap;
     }
@@ -12,6 +12,8 @@ public class Texture {
 
     private String name;
     private final BufferedImage image;
+    // 图集纹理关闭 mipmap，避免缩小时相邻贴图串色
+    private boolean mipmaps = true;
 
     public Texture(BufferedImage image) {
         this.image = image;
@@ -25,4 +27,8 @@ public class Texture {
     public void setName(String name) {
         this.name = name;
     }
+
+    public void setMipmaps(boolean mipmaps) {
+        this.mipmaps = mipmaps;
+    }
 }
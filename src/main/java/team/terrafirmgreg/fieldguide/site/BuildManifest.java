@@ -0,0 +1,256 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import lombok.extern.slf4j.Slf4j;
+import team.terrafirmgreg.fieldguide.ContentHash;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.export.ExportModelLoader;
+import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+import team.terrafirmgreg.fieldguide.localization.I18n;
+import team.terrafirmgreg.fieldguide.localization.Language;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-locale record of what every entry page was built from: a hash of its inputs (entry JSON,
+ * book macros, navigation, templates/generator, export indexes), the lang keys it translated, the
+ * export assets it read (blockstates, models and textures behind its GLBs and images) and its
+ * search text. With {@code --incremental}, entries whose inputs still hash the same are not
+ * re-rendered and their HTML is not rewritten.
+ */
+@Slf4j
+public class BuildManifest {
+
+    private static final int SCHEMA = 2;
+
+    /** UI strings read by every page shell ({@code SiteRenderer.basePageData}). */
+    private static final List<String> PAGE_CHROME_KEYS = List.of(
+            I18n.TITLE, I18n.SHORT_TITLE, I18n.INDEX, I18n.CONTENTS, I18n.GITHUB, I18n.DISCORD, I18n.HOME);
+
+    private final Path manifestFile;
+    private final Path localeOutputDir;
+    private final ExportLocalizationManager localizationManager;
+    private final ExportModelLoader assets;
+    private final String localeFingerprint;
+    private final Map<String, EntryRecord> previous;
+    private final Map<String, EntryRecord> current = new TreeMap<>();
+    private final Map<String, String> navFingerprints = new HashMap<>();
+    private int reused;
+
+    private BuildManifest(
+            Path manifestFile,
+            Path localeOutputDir,
+            ExportLocalizationManager localizationManager,
+            ExportModelLoader assets,
+            String localeFingerprint,
+            Map<String, EntryRecord> previous) {
+        this.manifestFile = manifestFile;
+        this.localeOutputDir = localeOutputDir;
+        this.localizationManager = localizationManager;
+        this.assets = assets;
+        this.localeFingerprint = localeFingerprint;
+        this.previous = previous;
+    }
+
+    /**
+     * @param manifestDir       where {@code <locale>.json} manifests are kept between runs
+     * @param assets            hashes the export assets entries were recorded reading
+     * @param reusePrevious     {@code false} ignores the stored manifest (full rebuild) but still writes a new one
+     * @param sharedFingerprint hash of locale-independent inputs, see {@link #sharedFingerprint}
+     */
+    public static BuildManifest open(
+            Path manifestDir,
+            Path outputRoot,
+            Book book,
+            ExportLocalizationManager localizationManager,
+            ExportModelLoader assets,
+            boolean reusePrevious,
+            String sharedFingerprint) {
+        Language lang = book.getLanguage();
+        Path manifestFile = manifestDir.resolve(lang.getKey() + ".json");
+        Map<String, EntryRecord> previous = reusePrevious ? read(manifestFile) : Map.of();
+        BuildManifest manifest = new BuildManifest(
+                manifestFile,
+                outputRoot.resolve(lang.getKey()),
+                localizationManager,
+                assets,
+                localeFingerprint(sharedFingerprint, book, localizationManager),
+                previous);
+        // Taken before prepare() rewrites names, so the hash only sees source values.
+        for (BookCategory category : book.getCategories()) {
+            manifest.navFingerprints.put(category.getId(), navFingerprint(category));
+        }
+        return manifest;
+    }
+
+    /** Generator code and templates: {@code codeLocation} is the jar or classes dir, {@code null} if unknown. */
+    public static String codeFingerprint(Path codeLocation) throws IOException {
+        ContentHash hash = ContentHash.sha256();
+        if (codeLocation != null) {
+            hash.putTree(codeLocation);
+        }
+        return hash.hex();
+    }
+
+    /**
+     * Locale-independent inputs: generator code and templates (see {@link #codeFingerprint}), the
+     * export indexes that change rendered HTML (icons, multiblocks, recipe ids) and site options
+     * baked into every page.
+     */
+    public static String sharedFingerprint(
+            String codeFingerprint,
+            Path exportRoot,
+            Path emiRoot,
+            String recipeBookBaseUrl) throws IOException {
+        ContentHash hash = ContentHash.sha256().put(SCHEMA).put(recipeBookBaseUrl).put(codeFingerprint);
+        hash.putFile(exportRoot.resolve("assets/icons/index.json"));
+        hash.putFile(exportRoot.resolve("meta.json"));
+        hash.putFile(exportRoot.resolve("index/tag-members.json"));
+        if (emiRoot != null) {
+            hash.putFile(emiRoot.resolve("bundle.json"));
+        }
+        return hash.hex();
+    }
+
+    private static String localeFingerprint(
+            String sharedFingerprint,
+            Book book,
+            ExportLocalizationManager localizationManager) {
+        ContentHash hash = ContentHash.sha256()
+                .put(sharedFingerprint)
+                .put(book.getLanguage().getKey())
+                .put(book.getMacros())
+                .put(localizationManager.getKeybindings())
+                .put(book.getName())
+                .put(localizationManager.lookup(book.getName()))
+                .put(book.getLandingText())
+                .put(localizationManager.lookup(book.getLandingText()));
+        for (String key : PAGE_CHROME_KEYS) {
+            hash.put(key).put(localizationManager.lookup(key));
+        }
+        // Sidebar lists every category by id + name.
+        for (BookCategory category : book.getCategories()) {
+            hash.put(category.getId()).put(category.getName());
+        }
+        return hash.hex();
+    }
+
+    /**
+     * Marks {@code entry} as up to date and restores its search text when its inputs match the
+     * previous manifest and its HTML is still on disk.
+     */
+    public boolean reuse(BookEntry entry, BookCategory category) {
+        EntryRecord record = previous.get(entry.getId());
+        if (record == null || !Files.isRegularFile(outputFile(entry))) {
+            return false;
+        }
+        String hash = combinedHash(inputHash(entry, category), record.keys(), record.assets());
+        if (!hash.equals(record.hash())) {
+            return false;
+        }
+        for (String content : record.search()) {
+            entry.addSearchContent(content);
+        }
+        entry.setUpToDate(true);
+        current.put(entry.getId(), record);
+        reused++;
+        return true;
+    }
+
+    /** Records a freshly rendered entry with the lang keys it looked up and the assets it read. */
+    public void record(BookEntry entry, BookCategory category, Set<String> keys, Set<String> assetPaths) {
+        List<String> sortedKeys = List.copyOf(new TreeSet<>(keys));
+        List<String> sortedAssets = List.copyOf(new TreeSet<>(assetPaths));
+        List<String> search = new ArrayList<>();
+        for (Map<String, String> result : entry.getSearchTree()) {
+            search.add(result.get("content"));
+        }
+        String hash = combinedHash(inputHash(entry, category), sortedKeys, sortedAssets);
+        current.put(entry.getId(), new EntryRecord(hash, sortedKeys, sortedAssets, search));
+    }
+
+    /** Writes the manifest and deletes entry pages that no longer exist in the book. */
+    public void save() throws IOException {
+        int pruned = 0;
+        for (String id : previous.keySet()) {
+            if (!current.containsKey(id) && Files.deleteIfExists(localeOutputDir.resolve(id + ".html"))) {
+                pruned++;
+            }
+        }
+        Files.createDirectories(manifestFile.getParent());
+        JsonUtils.writeFile(manifestFile.toFile(), new ManifestFile(SCHEMA, current));
+        log.info("Build manifest {}: {} entries reused, {} rendered, {} stale pages removed",
+                manifestFile.getFileName(), reused, current.size() - reused, pruned);
+    }
+
+    private Path outputFile(BookEntry entry) {
+        return localeOutputDir.resolve(entry.getId() + ".html");
+    }
+
+    private String inputHash(BookEntry entry, BookCategory category) {
+        ContentHash hash = ContentHash.sha256()
+                .put(localeFingerprint)
+                .put(navFingerprints.get(category.getId()))
+                .put(entry.getSourcePath());
+        try (InputStream in = entry.getAssetSource().getInputStream(entry.getSourcePath())) {
+            hash.put(in);
+        } catch (IOException e) {
+            // Unreadable source: never matches, so the entry is rendered (and fails loudly) as usual.
+            hash.put(e.toString()).put(String.valueOf(System.nanoTime()));
+        }
+        return hash.hex();
+    }
+
+    /** Sidebar of an entry page lists the sibling entries of its category. */
+    private static String navFingerprint(BookCategory category) {
+        ContentHash hash = ContentHash.sha256().put(category.getId()).put(category.getName());
+        for (BookEntry sibling : category.getEntries()) {
+            hash.put(sibling.getRelId()).put(sibling.getName());
+        }
+        return hash.hex();
+    }
+
+    private String combinedHash(String inputHash, List<String> keys, List<String> assetPaths) {
+        ContentHash hash = ContentHash.sha256().put(inputHash).put(keys.size());
+        for (String key : keys) {
+            hash.put(key).put(localizationManager.lookup(key));
+        }
+        hash.put(assetPaths.size());
+        for (String path : assetPaths) {
+            hash.put(path).put(assets.assetHash(path));
+        }
+        return hash.hex();
+    }
+
+    private static Map<String, EntryRecord> read(Path manifestFile) {
+        if (!Files.isRegularFile(manifestFile)) {
+            return Map.of();
+        }
+        try {
+            ManifestFile file = JsonUtils.readFile(manifestFile.toFile(), ManifestFile.class);
+            if (file == null || file.schema() != SCHEMA || file.entries() == null) {
+                log.info("Ignoring build manifest with different schema: {}", manifestFile);
+                return Map.of();
+            }
+            return file.entries();
+        } catch (Exception e) {
+            log.warn("Unreadable build manifest {}, doing a full rebuild", manifestFile, e);
+            return Map.of();
+        }
+    }
+
+    private record ManifestFile(int schema, Map<String, EntryRecord> entries) {}
+
+    private record EntryRecord(String hash, List<String> keys, List<String> assets, List<String> search) {}
+}
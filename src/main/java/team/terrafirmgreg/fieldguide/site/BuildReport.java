@@ -0,0 +1,286 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import lombok.extern.slf4j.Slf4j;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.gson.JsonUtils;
+import team.terrafirmgreg.fieldguide.localization.Language;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Wall time, CPU time and allocated bytes per build phase, locale, category, entry, page type
+ * and costly operation (GLB export, texture conversion), written as {@code build-report.json} and summarised in the log as the slowest entries.
+ * <p>
+ * CPU and allocation come from the current thread's counters, so a {@link Span} must be closed on
+ * the thread that opened it; each locale renders on one thread, so its numbers are its own. The
+ * build total and top-level phases only count the main thread (locale threads are in their locales).
+ * Counters the JVM does not support are reported as {@code -1}.
+ */
+@Slf4j
+public class BuildReport {
+
+    private static final int SCHEMA = 1;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+            THREADS instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()
+                    ? sun : null;
+
+    private final String startedAt = Instant.now().toString();
+    private final boolean streamEntries;
+    private final Timing total = new Timing();
+    private final Map<String, Timing> phases = new LinkedHashMap<>();
+    private final Map<String, LocaleReport> locales = new TreeMap<>();
+
+    public BuildReport(boolean streamEntries) {
+        this.streamEntries = streamEntries;
+    }
+
+    /** Whole build; close once everything else is done. */
+    public Span measure() {
+        return new Span(total::add);
+    }
+
+    public Span phase(String name) {
+        Timing timing;
+        synchronized (phases) {
+            timing = phases.computeIfAbsent(name, k -> new Timing());
+        }
+        return new Span(timing::add);
+    }
+
+    public <T> T phase(String name, Callable<T> work) throws Exception {
+        try (Span ignored = phase(name)) {
+            return work.call();
+        }
+    }
+
+    public synchronized LocaleReport locale(Language language) {
+        return locales.computeIfAbsent(language.getKey(), LocaleReport::new);
+    }
+
+    /** Slowest entries of all locales by wall time. */
+    public List<EntryTiming> slowestEntries(int limit) {
+        List<EntryTiming> all = new ArrayList<>();
+        synchronized (this) {
+            for (LocaleReport locale : locales.values()) {
+                all.addAll(locale.entries);
+            }
+        }
+        all.sort(Comparator.comparingLong(EntryTiming::wallNanos).reversed());
+        return all.subList(0, Math.min(limit, all.size()));
+    }
+
+    public void logSlowestEntries(int limit) {
+        List<EntryTiming> slowest = slowestEntries(limit);
+        if (slowest.isEmpty()) {
+            return;
+        }
+        log.info("Build took {} ms wall; {} slowest entries:", millis(total.wallNanos), slowest.size());
+        for (EntryTiming entry : slowest) {
+            log.info("  {} ms wall, {} ms cpu, {} alloc  {} {}{}",
+                    millis(entry.wallNanos()), millis(entry.cpuNanos()), bytes(entry.allocatedBytes()),
+                    entry.locale(), entry.id(), entry.reused() ? " (reused)" : "");
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Map<String, Stats> phaseStats = new LinkedHashMap<>();
+        synchronized (phases) {
+            phases.forEach((name, timing) -> phaseStats.put(name, timing.stats()));
+        }
+        Map<String, LocaleFile> localeFiles = new TreeMap<>();
+        synchronized (this) {
+            locales.forEach((key, locale) -> localeFiles.put(key, locale.toFile()));
+        }
+        List<EntryFile> slowest = slowestEntries(20).stream().map(EntryTiming::toFile).toList();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        JsonUtils.writeFile(file.toFile(),
+                new ReportFile(SCHEMA, startedAt, streamEntries, total.stats(), phaseStats, localeFiles, slowest));
+        log.info("Build report written to {}", file);
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "?" : String.format("%.1f", nanos / 1e6);
+    }
+
+    private static String bytes(long bytes) {
+        return bytes < 0 ? "?" : String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /** Timings of one locale; only touched by the thread rendering it. */
+    public static final class LocaleReport {
+        private final String locale;
+        private final Timing total = new Timing();
+        private final Map<String, Timing> phases = new LinkedHashMap<>();
+        private final Map<String, Timing> pageTypes = new TreeMap<>();
+        private final Map<String, Timing> operations = new TreeMap<>();
+        private final List<EntryTiming> entries = new ArrayList<>();
+
+        private LocaleReport(String locale) {
+            this.locale = locale;
+        }
+
+        public Span measure() {
+            return new Span(total::add);
+        }
+
+        public Span phase(String name) {
+            return new Span(phases.computeIfAbsent(name, k -> new Timing())::add);
+        }
+
+        /** Everything done for {@code entry}: icon, page rendering, or the incremental reuse check. */
+        public Span entry(BookCategory category, BookEntry entry) {
+            int pages = entry.getPages() != null ? entry.getPages().size() : 0;
+            return new Span(delta -> {
+                synchronized (this) {
+                    entries.add(new EntryTiming(locale, category.getId(), entry.getId(), pages, entry.isUpToDate(),
+                            delta.wallNanos(), delta.cpuNanos(), delta.allocatedBytes()));
+                }
+            });
+        }
+
+        /** One {@code PageRenderer.renderPage} call, aggregated by Patchouli page type. */
+        public Span page(String type) {
+            return new Span(pageTypes.computeIfAbsent(type != null ? type : "unknown", k -> new Timing())::add);
+        }
+
+        /**
+         * Work that happens inside phases and pages but is worth telling apart ({@code glb-export},
+         * {@code texture-conversion}); overlaps the phase and page type totals. Shared caches mean
+         * the locale that first needs a GLB or image pays for it.
+         */
+        public Span operation(String name) {
+            return new Span(operations.computeIfAbsent(name, k -> new Timing())::add);
+        }
+
+        private synchronized LocaleFile toFile() {
+            Map<String, Stats> phaseStats = new LinkedHashMap<>();
+            phases.forEach((name, timing) -> phaseStats.put(name, timing.stats()));
+            Map<String, Stats> pageStats = new TreeMap<>();
+            pageTypes.forEach((type, timing) -> pageStats.put(type, timing.stats()));
+            Map<String, Stats> operationStats = new TreeMap<>();
+            operations.forEach((name, timing) -> operationStats.put(name, timing.stats()));
+            Map<String, Timing> categories = new LinkedHashMap<>();
+            List<EntryFile> entryFiles = new ArrayList<>();
+            for (EntryTiming entry : entries) {
+                categories.computeIfAbsent(entry.category(), k -> new Timing())
+                        .add(new Delta(entry.wallNanos(), entry.cpuNanos(), entry.allocatedBytes()));
+                entryFiles.add(entry.toFile());
+            }
+            Map<String, Stats> categoryStats = new LinkedHashMap<>();
+            categories.forEach((id, timing) -> categoryStats.put(id, timing.stats()));
+            return new LocaleFile(total.stats(), phaseStats, pageStats, operationStats, categoryStats, entryFiles);
+        }
+    }
+
+    /** Thread counters taken when opened; the difference is handed to the owner on close. */
+    public static final class Span implements AutoCloseable {
+        private final Consumer<Delta> sink;
+        private final long wall = System.nanoTime();
+        private final long cpu = cpuNanos();
+        private final long allocated = allocatedBytes();
+
+        private Span(Consumer<Delta> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void close() {
+            long cpuNow = cpuNanos();
+            long allocatedNow = allocatedBytes();
+            sink.accept(new Delta(
+                    System.nanoTime() - wall,
+                    cpu < 0 || cpuNow < 0 ? -1 : cpuNow - cpu,
+                    allocated < 0 || allocatedNow < 0 ? -1 : allocatedNow - allocated));
+        }
+
+        private static long cpuNanos() {
+            return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+        }
+
+        private static long allocatedBytes() {
+            return ALLOCATIONS != null ? ALLOCATIONS.getCurrentThreadAllocatedBytes() : -1;
+        }
+    }
+
+    public record EntryTiming(
+            String locale,
+            String category,
+            String id,
+            int pages,
+            boolean reused,
+            long wallNanos,
+            long cpuNanos,
+            long allocatedBytes) {
+
+        private EntryFile toFile() {
+            return new EntryFile(locale, category, id, pages, reused,
+                    toMillis(wallNanos), toMillis(cpuNanos), allocatedBytes);
+        }
+    }
+
+    private record Delta(long wallNanos, long cpuNanos, long allocatedBytes) {}
+
+    /** Sum of all spans recorded under one name; {@code -1} stays sticky once a counter is unsupported. */
+    private static final class Timing {
+        private long count;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+
+        synchronized void add(Delta delta) {
+            count++;
+            wallNanos += delta.wallNanos();
+            cpuNanos = cpuNanos < 0 || delta.cpuNanos() < 0 ? -1 : cpuNanos + delta.cpuNanos();
+            allocatedBytes = allocatedBytes < 0 || delta.allocatedBytes() < 0 ? -1 : allocatedBytes + delta.allocatedBytes();
+        }
+
+        synchronized Stats stats() {
+            return new Stats(count, toMillis(wallNanos), toMillis(cpuNanos), allocatedBytes);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? -1 : Math.round(nanos / 1e3) / 1e3;
+    }
+
+    private record Stats(long count, double wallMs, double cpuMs, long allocatedBytes) {}
+
+    private record EntryFile(
+            String locale, String category, String id, int pages, boolean reused,
+            double wallMs, double cpuMs, long allocatedBytes) {}
+
+    private record LocaleFile(
+            Stats total,
+            Map<String, Stats> phases,
+            Map<String, Stats> pageTypes,
+            Map<String, Stats> operations,
+            Map<String, Stats> categories,
+            List<EntryFile> entries) {}
+
+    private record ReportFile(
+            int schema,
+            String startedAt,
+            boolean streamEntries,
+            Stats total,
+            Map<String, Stats> phases,
+            Map<String, LocaleFile> locales,
+            List<EntryFile> slowestEntries) {}
+}
@@ -1,9 +1,9 @@
 package team.terrafirmgreg.fieldguide.site;
 
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.extern.slf4j.Slf4j;
 import team.terrafirmgreg.fieldguide.export.LangCatalog;
-import team.terrafirmgreg.fieldguide.gson.JsonUtils;
 import team.terrafirmgreg.fieldguide.localization.I18n;
 import team.terrafirmgreg.fieldguide.localization.Language;
 import team.terrafirmgreg.fieldguide.localization.LocalizationManager;
@@ -12,24 +12,44 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loads merged {@code lang/<locale>.json} from guide-export (no mod jar scanning).
  * Also merges site UI strings from {@code assets/lang/<locale>.json} (CLI parity).
+ * <p>
+ * Each locale is read once into an immutable {@link TranslationTable} with the EN fallback
+ * already folded in, shared by this manager and every {@link #forLanguage} view; switching
+ * language only swaps the table. After {@link #restrictTo}, a locale's table only keeps the keys
+ * that locale's book references (plus all site strings); a lookup outside that set falls back to
+ * the locale's full table, loaded on first need.
  */
 @Slf4j
 public class ExportLocalizationManager implements LocalizationManager {
 
-    private static final TypeToken<Map<String, String>> LANG_TYPE = new TypeToken<>() {};
+    /** {@link I18n} keys: site UI strings, always kept. */
+    private static final String SITE_KEY_PREFIX = I18n.key("");
 
     private final LangCatalog langCatalog;
     private final Path siteLangRoot;
-    private final Map<String, String> fallbackTranslations = new TreeMap<>();
-    private Map<String, String> currentTranslations = new TreeMap<>();
+    /** EN export + site strings; the base every other locale's table is layered on. */
+    private final TranslationTable fallbackTranslations;
+    private final Map<Language, TranslationTable> tables;
+    /** Unpruned tables, only loaded when a key outside {@link #referencedKeys} is looked up. */
+    private final Map<Language, TranslationTable> fullTables;
+    /** Keys kept in each locale's {@link #tables} entry; a locale missing here keeps everything. */
+    private final Map<Language, Set<String>> referencedKeys;
+    private TranslationTable currentTranslations;
     private Language currentLanguage = Language.EN_US;
     private final Map<String, String> keybindings = new TreeMap<>();
+    /** Keys passed to {@link #translate} since {@link #startRecording()}; {@code null} when off. */
+    private Set<String> recordedKeys;
 
     public ExportLocalizationManager(LangCatalog langCatalog) {
         this(langCatalog, Path.of("assets/lang"));
@@ -38,24 +58,105 @@ public class ExportLocalizationManager implements LocalizationManager {
     public ExportLocalizationManager(LangCatalog langCatalog, Path siteLangRoot) {
         this.langCatalog = langCatalog;
         this.siteLangRoot = siteLangRoot.normalize().toAbsolutePath();
-        if (Files.isRegularFile(langCatalog.langFile(Language.EN_US))) {
-            fallbackTranslations.putAll(readLangFile(langCatalog.langFile(Language.EN_US)));
+        Map<String, String> fallback = new HashMap<>();
+        Path enFile = langCatalog.langFile(Language.EN_US);
+        if (Files.isRegularFile(enFile)) {
+            readLangFile(enFile, fallback, null);
         }
-        mergeSiteLang(Language.EN_US, fallbackTranslations);
+        mergeSiteLang(Language.EN_US, fallback);
+        this.fallbackTranslations = TranslationTable.of(fallback);
+        this.tables = new ConcurrentHashMap<>();
+        this.fullTables = new ConcurrentHashMap<>();
+        this.referencedKeys = new ConcurrentHashMap<>();
+        tables.put(Language.EN_US, fallbackTranslations);
+        fullTables.put(Language.EN_US, fallbackTranslations);
+        this.currentTranslations = fallbackTranslations;
     }
 
-    @Override
-    public void switchLanguage(Language lang) {
-        this.currentLanguage = lang;
-        currentTranslations = new TreeMap<>();
+    /** Shares the loaded tables with {@code parent}. */
+    private ExportLocalizationManager(ExportLocalizationManager parent) {
+        this.langCatalog = parent.langCatalog;
+        this.siteLangRoot = parent.siteLangRoot;
+        this.fallbackTranslations = parent.fallbackTranslations;
+        this.tables = parent.tables;
+        this.fullTables = parent.fullTables;
+        this.referencedKeys = parent.referencedKeys;
+        this.currentTranslations = fallbackTranslations;
+    }
+
+    /**
+     * Independent manager already switched to {@code lang}, for rendering one locale on its own
+     * thread ({@code --parallel-locales}). Never mutates this instance.
+     */
+    public ExportLocalizationManager forLanguage(Language lang) {
+        ExportLocalizationManager view = new ExportLocalizationManager(this);
+        view.switchLanguage(lang);
+        return view;
+    }
+
+    /**
+     * Keeps only {@code keys} (see {@link ReferencedLangKeys}, collected from {@code lang}'s own
+     * book) in {@code lang}'s table. Call before {@link #forLanguage}; EN is the fallback and always
+     * stays whole.
+     */
+    public void restrictTo(Language lang, Set<String> keys) {
+        if (lang == Language.EN_US) {
+            return;
+        }
+        referencedKeys.put(lang, Set.copyOf(keys));
+        tables.remove(lang);
+        log.info("{} lang table limited to {} referenced keys", lang.getKey(), keys.size());
+    }
+
+    /** Reads the tables of {@code languages} up front, in parallel; later switches are free. */
+    public void preload(Collection<Language> languages) {
+        languages.parallelStream().forEach(this::table);
+    }
+
+    private TranslationTable table(Language lang) {
+        Set<String> keys = referencedKeys.get(lang);
+        return tables.computeIfAbsent(lang, l -> loadTable(l, keys));
+    }
+
+    private TranslationTable loadTable(Language lang, Set<String> keys) {
+        Map<String, String> merged = new HashMap<>();
+        if (keys == null) {
+            fallbackTranslations.forEach(merged::put);
+        } else {
+            fallbackTranslations.forEach((key, value) -> {
+                if (keys.contains(key) || key.startsWith(SITE_KEY_PREFIX)) {
+                    merged.put(key, value);
+                }
+            });
+        }
         Path langFile = langCatalog.langFile(lang);
         if (Files.isRegularFile(langFile)) {
-            currentTranslations.putAll(readLangFile(langFile));
-            log.info("Loaded {} export translations for {}", currentTranslations.size(), lang.getKey());
+            int count = readLangFile(langFile, merged, keys);
+            log.info("Loaded {} export translations for {}", count, lang.getKey());
         } else {
             log.warn("Missing export lang file for {}", lang.getKey());
         }
-        mergeSiteLang(lang, currentTranslations);
+        mergeSiteLang(lang, merged);
+        return TranslationTable.of(merged);
+    }
+
+    /** Text for {@code key} in the current locale (EN fallback included); {@code null} if absent. */
+    private String find(String key) {
+        String value = currentTranslations.get(key);
+        Set<String> keys = referencedKeys.get(currentLanguage);
+        if (value != null || keys == null || keys.contains(key) || key.startsWith(SITE_KEY_PREFIX)) {
+            return value;
+        }
+        return fullTables.computeIfAbsent(currentLanguage, lang -> {
+            log.info("Lang key {} was not referenced by the book; loading the full {} table", key, lang.getKey());
+            return loadTable(lang, null);
+        }).get(key);
+    }
+
+    @Override
+    public void switchLanguage(Language lang) {
+        this.currentLanguage = lang;
+        currentTranslations = table(lang);
 
         keybindings.clear();
         for (String key : I18n.KEYS) {
@@ -69,20 +170,40 @@ public class ExportLocalizationManager implements LocalizationManager {
         if (!Files.isRegularFile(langFile)) {
             return;
         }
-        Map<String, String> site = readLangFile(langFile);
+        Map<String, String> site = new TreeMap<>();
+        readLangFile(langFile, site, null);
         for (Map.Entry<String, String> entry : site.entrySet()) {
             target.put(I18n.key(entry.getKey()), entry.getValue());
         }
     }
 
-    private static Map<String, String> readLangFile(java.nio.file.Path langFile) {
-        try {
-            String json = Files.readString(langFile);
-            Map<String, String> map = JsonUtils.GSON.fromJson(json, LANG_TYPE.getType());
-            return map != null ? new TreeMap<>(map) : new TreeMap<>();
-        } catch (IOException e) {
+    /**
+     * Streams {@code langFile} into {@code target} (later files override); with {@code keys}, other
+     * keys are skipped without reading their text. Returns the number of entries put.
+     */
+    private static int readLangFile(Path langFile, Map<String, String> target, Set<String> keys) {
+        int count = 0;
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(langFile))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                JsonToken token = reader.peek();
+                if ((token == JsonToken.STRING || token == JsonToken.NUMBER)
+                        && (keys == null || keys.contains(key) || key.startsWith(SITE_KEY_PREFIX))) {
+                    target.put(key, reader.nextString());
+                    count++;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | RuntimeException e) {
             throw new IllegalStateException("Failed to read " + langFile, e);
         }
+        return count;
     }
 
     @Override
@@ -92,18 +213,36 @@ public class ExportLocalizationManager implements LocalizationManager {
 
     @Override
     public String translate(String... keys) {
+        if (recordedKeys != null) {
+            recordedKeys.addAll(Arrays.asList(keys));
+        }
         for (String key : keys) {
-            if (currentTranslations.containsKey(key)) {
-                return currentTranslations.get(key);
-            }
-            if (fallbackTranslations.containsKey(key)) {
-                return fallbackTranslations.get(key);
+            String value = find(key);
+            if (value != null) {
+                return value;
             }
         }
         log.debug("Missing translation for: {}", Arrays.toString(keys));
         return keys[0];
     }
 
+    /** Current value of {@code key} (locale, then EN fallback) without recording it; {@code null} if absent. */
+    public String lookup(String key) {
+        return find(key);
+    }
+
+    /** Starts collecting every key looked up through {@link #translate}, for incremental rebuilds. */
+    public void startRecording() {
+        recordedKeys = new TreeSet<>();
+    }
+
+    /** Stops recording and returns the keys seen since {@link #startRecording()}. */
+    public Set<String> stopRecording() {
+        Set<String> keys = recordedKeys != null ? recordedKeys : Set.of();
+        recordedKeys = null;
+        return keys;
+    }
+
     @Override
     public String translateWithArgs(String key, Object... args) {
         return String.format(translate(key), args);
@@ -0,0 +1,236 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prebuilt inverted search index, so {@code search.js} answers a query with a few binary searches
+ * instead of scanning every record in the browser. Fed by {@link SearchIndexWriter}, either as one
+ * {@code search_inverted.json}:
+ * <pre>
+ * {
+ *   "version": 1,
+ *   "entries":  [[name, url], ...],
+ *   "records":  [[entryIndex, content], ...],
+ *   "tokens":   [token, ...],                 // sorted, see SearchTokenizer
+ *   "postings": [[recordId, delta, ...], ...] // per token, ascending record ids, delta-encoded
+ * }
+ * </pre>
+ * or, when the record text lives in the category shards, as {@link #TOKEN_SHARDS} token shards
+ * {@code tokens-<n>.json} holding just {@code tokens}/{@code postings}, a token going to shard
+ * {@link #tokenShard}. Every token starting with a query token's prefix shares its first character,
+ * so a query only fetches the shards of its own tokens.
+ * <p>
+ * Only the postings and the URL of each entry stay in memory; entries and records are spooled to
+ * temp files next to the index as they arrive and copied into {@code search_inverted.json} by
+ * {@link #write}.
+ */
+@Slf4j
+public class InvertedIndexWriter {
+
+    static final String INDEX_FILE = "search_inverted.json";
+    static final int VERSION = 1;
+    static final int TOKEN_SHARDS = 32;
+
+    private final Map<String, Integer> entryIndex = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    /** Where entries and records are spooled; {@code null} when they are written elsewhere. */
+    private final Path spoolDir;
+    private Path entrySpoolFile;
+    private Path recordSpoolFile;
+    private JsonWriter entrySpool;
+    private JsonWriter recordSpool;
+    private int records;
+
+    /** Keeps the postings only, for {@link #writeShards}. */
+    public InvertedIndexWriter() {
+        this(null);
+    }
+
+    /** Also spools entries and records under {@code spoolDir}, for {@link #write}. */
+    public InvertedIndexWriter(Path spoolDir) {
+        this.spoolDir = spoolDir;
+    }
+
+    /** Adds the next record; record ids count up from 0 in call order. */
+    public void add(String entryName, String url, String content) throws IOException {
+        int record = records++;
+        if (spoolDir != null) {
+            openSpools();
+            Integer entry = entryIndex.get(url);
+            if (entry == null) {
+                entry = entryIndex.size();
+                entryIndex.put(url, entry);
+                entrySpool.beginArray().value(entryName).value(url).endArray();
+            }
+            recordSpool.beginArray().value(entry).value(content).endArray();
+        }
+        for (String token : SearchTokenizer.tokenize(content)) {
+            postings.computeIfAbsent(token, k -> new Postings()).add(record);
+        }
+    }
+
+    /** Shard of {@code token}; {@code search.js} uses the same {@code charCodeAt(0) % shards}. */
+    static int tokenShard(String token) {
+        return token.charAt(0) % TOKEN_SHARDS;
+    }
+
+    static String tokenShardFile(int shard) {
+        return "tokens-" + shard + ".json";
+    }
+
+    /** Writes everything, records included, to {@code search_inverted.json}. */
+    public void write(Path localeDir) throws IOException {
+        if (spoolDir == null) {
+            throw new IllegalStateException("Records were not kept; write token shards instead");
+        }
+        openSpools();
+        entrySpool.endArray();
+        entrySpool.close();
+        recordSpool.endArray();
+        recordSpool.close();
+        Path file = localeDir.resolve(INDEX_FILE);
+        List<String> tokens = sortedTokens();
+        try (JsonWriter out = open(file)) {
+            out.beginObject();
+            out.name("version").value(VERSION);
+
+            out.name("entries").beginArray();
+            try (JsonReader in = read(entrySpoolFile)) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray();
+                    out.beginArray().value(in.nextString()).value(in.nextString()).endArray();
+                    in.endArray();
+                }
+            }
+            out.endArray();
+
+            out.name("records").beginArray();
+            try (JsonReader in = read(recordSpoolFile)) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray();
+                    out.beginArray().value(in.nextInt()).value(in.nextString()).endArray();
+                    in.endArray();
+                }
+            }
+            out.endArray();
+
+            writeTokens(out, tokens);
+            out.endObject();
+        } finally {
+            Files.deleteIfExists(entrySpoolFile);
+            Files.deleteIfExists(recordSpoolFile);
+        }
+        log.debug("Inverted search index {}: {} entries, {} records, {} tokens",
+                file, entryIndex.size(), records, tokens.size());
+    }
+
+    /** Writes the postings only, split into {@link #TOKEN_SHARDS} files under {@code dir}; empty shards too. */
+    public void writeShards(Path dir) throws IOException {
+        List<List<String>> shards = new ArrayList<>();
+        for (int i = 0; i < TOKEN_SHARDS; i++) {
+            shards.add(new ArrayList<>());
+        }
+        List<String> tokens = sortedTokens();
+        for (String token : tokens) {
+            shards.get(tokenShard(token)).add(token);
+        }
+        for (int i = 0; i < TOKEN_SHARDS; i++) {
+            try (JsonWriter out = open(dir.resolve(tokenShardFile(i)))) {
+                out.beginObject();
+                out.name("version").value(VERSION);
+                writeTokens(out, shards.get(i));
+                out.endObject();
+            }
+        }
+        log.debug("Inverted search index {}: {} records, {} tokens in {} shards", dir, records, tokens.size(), TOKEN_SHARDS);
+    }
+
+    private void openSpools() throws IOException {
+        if (entrySpool != null) {
+            return;
+        }
+        Files.createDirectories(spoolDir);
+        entrySpoolFile = Files.createTempFile(spoolDir, "search-entries", ".tmp");
+        recordSpoolFile = Files.createTempFile(spoolDir, "search-records", ".tmp");
+        entrySpool = open(entrySpoolFile);
+        entrySpool.beginArray();
+        recordSpool = open(recordSpoolFile);
+        recordSpool.beginArray();
+    }
+
+    private List<String> sortedTokens() {
+        String[] tokens = postings.keySet().toArray(new String[0]);
+        // String.compareTo orders by UTF-16 code unit, like JS "<", so search.js can binary-search it
+        Arrays.sort(tokens);
+        return Arrays.asList(tokens);
+    }
+
+    private void writeTokens(JsonWriter out, List<String> tokens) throws IOException {
+        out.name("tokens").beginArray();
+        for (String token : tokens) {
+            out.value(token);
+        }
+        out.endArray();
+
+        out.name("postings").beginArray();
+        for (String token : tokens) {
+            postings.get(token).write(out);
+        }
+        out.endArray();
+    }
+
+    private static JsonWriter open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8)));
+    }
+
+    private static JsonReader read(Path file) throws IOException {
+        return new JsonReader(new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)));
+    }
+
+    /** Ascending record ids; a record containing a token several times is listed once. */
+    private static final class Postings {
+        private int[] records = new int[4];
+        private int size;
+
+        void add(int record) {
+            if (size > 0 && records[size - 1] == record) {
+                return;
+            }
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+
+        void write(JsonWriter out) throws IOException {
+            out.beginArray();
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                out.value(records[i] - previous);
+                previous = records[i];
+            }
+            out.endArray();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookPage;
+import team.terrafirmgreg.fieldguide.data.patchouli.page.IPageWithText;
+import team.terrafirmgreg.fieldguide.export.TagMemberIndex;
+import team.terrafirmgreg.fieldguide.localization.I18n;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lang keys a book can look up while rendering, found by one pass over the loaded book: book,
+ * category and entry names, {@code $(k:...)} keybinds, and the {@code item.}/{@code block.} name
+ * keys of every registry id or tag in icons and page JSON. Deliberately generous (any id-like
+ * string counts); {@link ExportLocalizationManager} still finds a key this pass misses, it just
+ * has to load that locale's full table to do so.
+ */
+final class ReferencedLangKeys {
+
+    /** {@code ns:path} anywhere in a string, optionally a {@code #} tag; stops at NBT, commas, spaces. */
+    private static final Pattern REGISTRY_ID = Pattern.compile("(#|tag:)?([a-z0-9_.-]+):([a-z0-9_/.-]+)");
+    private static final Pattern KEYBIND = Pattern.compile("\\$\\(k:([^)]*)\\)");
+
+    private final TagMemberIndex tagMembers;
+    private final Set<String> keys = new HashSet<>();
+
+    private ReferencedLangKeys(TagMemberIndex tagMembers) {
+        this.tagMembers = tagMembers;
+    }
+
+    static Set<String> collect(Book book, TagMemberIndex tagMembers) {
+        ReferencedLangKeys collector = new ReferencedLangKeys(tagMembers);
+        Collections.addAll(collector.keys, I18n.KEYS);
+        collector.literal(book.getName());
+        collector.literal(book.getLandingText());
+        if (book.getMacros() != null) {
+            book.getMacros().values().forEach(collector::scan);
+        }
+        for (BookCategory category : book.getCategories()) {
+            collector.literal(category.getName());
+            collector.scan(category.getDescription());
+            collector.scan(category.getIcon());
+            for (BookEntry entry : category.getEntries()) {
+                collector.literal(entry.getName());
+                collector.scan(entry.getIcon());
+                if (entry.getPages() != null) {
+                    entry.getPages().forEach(collector::page);
+                }
+            }
+        }
+        return Set.copyOf(collector.keys);
+    }
+
+    /** A string the renderer passes to {@code translate} as a whole. */
+    private void literal(String value) {
+        if (value != null) {
+            keys.add(value);
+            scan(value);
+        }
+    }
+
+    private void page(BookPage page) {
+        JsonObject json = page.getJsonObject();
+        if (json != null) {
+            scan(json);
+        } else if (page instanceof IPageWithText text) {
+            scan(text.getText());
+        }
+    }
+
+    private void scan(JsonElement json) {
+        if (json instanceof JsonPrimitive primitive && primitive.isString()) {
+            scan(primitive.getAsString());
+        } else if (json instanceof JsonArray array) {
+            array.forEach(this::scan);
+        } else if (json instanceof JsonObject object) {
+            object.entrySet().forEach(e -> scan(e.getValue()));
+        }
+    }
+
+    private void scan(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        if (text.indexOf('$') >= 0) {
+            Matcher keybind = KEYBIND.matcher(text);
+            while (keybind.find()) {
+                keys.add(keybind.group(1));
+            }
+        }
+        if (text.indexOf(':') < 0) {
+            return;
+        }
+        Matcher id = REGISTRY_ID.matcher(text);
+        while (id.find()) {
+            String registryId = id.group(2) + ":" + id.group(3);
+            if (id.group(1) != null) {
+                keys.add(I18n.TAG);
+                tagMembers.getItemMembers(registryId).forEach(this::itemName);
+            } else {
+                itemName(registryId);
+            }
+        }
+    }
+
+    /** Keys {@code TextureRenderer} tries for an item's display name. */
+    private void itemName(String registryId) {
+        String key = registryId.replace('/', '.').replace(':', '.');
+        keys.add("item." + key);
+        keys.add("block." + key);
+    }
+}
@@ -0,0 +1,154 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.stream.JsonWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a locale's search index, the one layout {@code search.js} reads. Without sharding it is a
+ * single {@code search_inverted.json} (see {@link InvertedIndexWriter}). With {@link Sharding#CATEGORY}
+ * the record text is streamed straight from the book entries with a {@link JsonWriter} into one file
+ * per category under {@code search/} (records {@code {content, entry, url}}), the postings go to the
+ * token shards, and {@code search/manifest.json} lists both; record ids run on across categories, each
+ * shard giving its {@code first} id.
+ * <p>
+ * {@link #write} takes a fully rendered book; {@code --stream-entries} instead feeds entries one at a
+ * time through {@link #beginCategory}/{@link #addEntry}/{@link #endCategory} as they are rendered.
+ */
+@Slf4j
+public class SearchIndexWriter implements Closeable {
+
+    public enum Sharding {
+        NONE,
+        CATEGORY
+    }
+
+    static final String SHARD_DIR = "search";
+    static final String MANIFEST_FILE = "manifest.json";
+    static final int MANIFEST_VERSION = 2;
+
+    private final Path localeDir;
+    private final Sharding sharding;
+    private final InvertedIndexWriter inverted;
+    /** The manifest; only when sharded. */
+    private JsonWriter index;
+    private JsonWriter shard;
+    private BookCategory shardCategory;
+    private int shardFirst;
+    private int records;
+
+    public SearchIndexWriter(Path localeDir, Sharding sharding) {
+        this.localeDir = localeDir;
+        this.sharding = sharding == null ? Sharding.NONE : sharding;
+        this.inverted = this.sharding == Sharding.NONE ? new InvertedIndexWriter(localeDir) : new InvertedIndexWriter();
+    }
+
+    public void write(List<BookCategory> categories) throws IOException {
+        for (BookCategory category : categories) {
+            beginCategory(category);
+            for (BookEntry entry : category.getEntries()) {
+                addEntry(entry);
+            }
+            endCategory();
+        }
+        close();
+    }
+
+    public void beginCategory(BookCategory category) throws IOException {
+        open();
+        if (sharding == Sharding.CATEGORY) {
+            shard = open(localeDir.resolve(SHARD_DIR).resolve(shardFile(category)));
+            shard.beginArray();
+            shardCategory = category;
+            shardFirst = records;
+        }
+    }
+
+    public void addEntry(BookEntry entry) throws IOException {
+        open();
+        if (sharding == Sharding.CATEGORY && shard == null) {
+            throw new IllegalStateException("Sharded search index needs beginCategory() before " + entry.getId());
+        }
+        for (Map<String, String> result : entry.getSearchTree()) {
+            String content = SiteRenderer.searchStrip(result.get("content"));
+            if (shard != null) {
+                shard.beginObject();
+                shard.name("content").value(content);
+                shard.name("entry").value(result.get("entry"));
+                shard.name("url").value(result.get("url"));
+                shard.endObject();
+            }
+            inverted.add(result.get("entry"), result.get("url"), content);
+            records++;
+        }
+    }
+
+    public void endCategory() throws IOException {
+        if (shard == null) {
+            return;
+        }
+        shard.endArray();
+        shard.close();
+        shard = null;
+        index.beginObject();
+        index.name("category").value(shardCategory.getId());
+        index.name("name").value(shardCategory.getName());
+        index.name("file").value(shardFile(shardCategory));
+        index.name("first").value(shardFirst);
+        index.name("records").value(records - shardFirst);
+        index.endObject();
+    }
+
+    /** Finishes the index; output dirs survive --incremental runs, so the other layout is dropped. */
+    @Override
+    public void close() throws IOException {
+        open();
+        endCategory();
+        if (sharding == Sharding.CATEGORY) {
+            index.endArray();
+            index.endObject();
+            index.close();
+            inverted.writeShards(localeDir.resolve(SHARD_DIR));
+            Files.deleteIfExists(localeDir.resolve(InvertedIndexWriter.INDEX_FILE));
+            log.debug("Search index {}: {} records", localeDir.resolve(SHARD_DIR), records);
+        } else {
+            inverted.write(localeDir);
+            FileUtils.deleteDirectory(localeDir.resolve(SHARD_DIR).toFile());
+            log.debug("Search index {}: {} records", localeDir.resolve(InvertedIndexWriter.INDEX_FILE), records);
+        }
+    }
+
+    private void open() throws IOException {
+        if (index != null || sharding != Sharding.CATEGORY) {
+            return;
+        }
+        Path shardDir = localeDir.resolve(SHARD_DIR);
+        FileUtils.deleteDirectory(shardDir.toFile());
+        index = open(shardDir.resolve(MANIFEST_FILE));
+        index.beginObject();
+        index.name("version").value(MANIFEST_VERSION);
+        index.name("tokenShards").value(InvertedIndexWriter.TOKEN_SHARDS);
+        index.name("shards").beginArray();
+    }
+    private static String shardFile(BookCategory category) {
+        return category.getId() + ".json";
+    }
+
+    private static JsonWriter open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8)));
+    }
+}
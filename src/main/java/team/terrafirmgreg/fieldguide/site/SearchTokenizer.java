@@ -0,0 +1,65 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search tokenizer shared by {@link InvertedIndexWriter} and {@code static/search.js}; the two must
+ * stay in step or queries stop matching the index.
+ * <ul>
+ *   <li>Text is NFKC-normalized (full-width letters/digits become ASCII) and lower-cased.</li>
+ *   <li>Runs of letters/decimal digits form one word token; single-character words are dropped.</li>
+ *   <li>CJK runs (Han, Kana, Hangul) have no word breaks: every overlapping bigram is a token, plus
+ *       the last character of the run, so a one-character query still finds it by prefix.</li>
+ * </ul>
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {}
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                for (int j = start; j < i - 1; j++) {
+                    tokens.add(new String(codePoints, j, 2));
+                }
+                tokens.add(new String(codePoints, i - 1, 1));
+            } else if (isWord(codePoints[i])) {
+                while (i < codePoints.length && isWord(codePoints[i]) && !isCjk(codePoints[i])) {
+                    i++;
+                }
+                if (i - start > 1) {
+                    tokens.add(new String(codePoints, start, i - start));
+                }
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static boolean isWord(int codePoint) {
+        return Character.isLetter(codePoint) || Character.getType(codePoint) == Character.DECIMAL_DIGIT_NUMBER;
+    }
+}
@@ -13,10 +13,12 @@ import team.terrafirmgreg.fieldguide.exception.InternalException;
 import team.terrafirmgreg.fieldguide.export.BlockstateRefResolver;
 import team.terrafirmgreg.fieldguide.export.ExportBundle;
 import team.terrafirmgreg.fieldguide.export.ExportModelLoader;
+import team.terrafirmgreg.fieldguide.export.GlbCache;
 import team.terrafirmgreg.fieldguide.export.MultiblockRenderResolver;
 import team.terrafirmgreg.fieldguide.localization.Language;
 import team.terrafirmgreg.fieldguide.localization.LocalizationManager;
 import team.terrafirmgreg.fieldguide.render.IconMarkup;
+import team.terrafirmgreg.fieldguide.render.MacroExpander;
 import team.terrafirmgreg.fieldguide.render.PageRenderer;
 import team.terrafirmgreg.fieldguide.render.TextFormatter;
 import team.terrafirmgreg.fieldguide.render.TextureRenderer;
@@ -28,8 +30,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static team.terrafirmgreg.fieldguide.Constants.FIELD_GUIDE;
 
@@ -39,7 +46,7 @@ public class SiteGenerator implements Callable<Integer> {
     @CommandLine.Option(
             names = {"-e", "--export-dir"},
             required = true,
-            description = "guide-export root (manifest.json + assets/ + data/)"
+            description = "guide-export root (manifest.json + assets/ + data/), or a .zip of it read in place"
     )
     String exportDir;
 
@@ -70,6 +77,73 @@ public class SiteGenerator implements Callable<Integer> {
     )
     String recipeBookBaseUrl;
 
+    @CommandLine.Option(
+            names = {"--parallel-locales"},
+            description = "Render up to N locales concurrently, each with its own localization/page renderers (default: 1 = serial)",
+            defaultValue = "1"
+    )
+    int parallelLocales;
+
+    @CommandLine.Option(
+            names = {"--model-cache-size"},
+            description = "Max parsed block/item models kept in memory per cache (default: 0 = unbounded)",
+            defaultValue = "0"
+    )
+    int modelCacheSize;
+
+    @CommandLine.Option(
+            names = {"--glb-texture-atlas"},
+            description = "Pack each multiblock GLB's textures into a power-of-two atlas (one material per render state)"
+    )
+    boolean glbTextureAtlas;
+
+    @CommandLine.Option(
+            names = {"--glb-cache-dir"},
+            description = "Content-addressed multiblock GLB cache kept between runs (empty = disable)",
+            defaultValue = Constants.CACHE + "/glb"
+    )
+    String glbCacheDir;
+
+    @CommandLine.Option(
+            names = {"--icon-index-cache"},
+            description = "Binary copy of assets/icons/index.json reused while the index is unchanged (empty = disable)",
+            defaultValue = Constants.CACHE + "/icons-index.bin"
+    )
+    String iconIndexCache;
+
+    @CommandLine.Option(
+            names = {"--full-lang-tables"},
+            description = "Keep every key of each locale's lang file instead of only those the book references"
+    )
+    boolean fullLangTables;
+
+    @CommandLine.Option(
+            names = {"--search-shards"},
+            description = "Search index layout: NONE (one search_inverted.json) or CATEGORY (search/<category>.json records, token shards + manifest)",
+            defaultValue = "NONE"
+    )
+    SearchIndexWriter.Sharding searchShards;
+
+    @CommandLine.Option(
+            names = {"--stream-entries"},
+            description = "Write each entry page and its search records right after rendering it, then release its HTML "
+                    + "(peak heap ~ one entry instead of one book per locale)"
+    )
+    boolean streamEntries;
+
+    @CommandLine.Option(
+            names = {"--incremental"},
+            description = "Skip entry pages whose inputs are unchanged since the last build (manifest in " + Constants.CACHE + "/site-manifest)"
+    )
+    boolean incremental;
+
+    @CommandLine.Option(
+            names = {"--build-report"},
+            description = "Write wall/CPU time and allocation per phase, locale, category, entry and page type here (empty = disable)",
+            defaultValue = Constants.CACHE + "/build-report.json"
+    )
+    String buildReport;
+
     public static void main(String[] args) {
         int code = new CommandLine(new SiteGenerator()).execute(args);
         System.exit(code);
@@ -80,43 +154,209 @@ public class SiteGenerator implements Callable<Integer> {
         Path export = Paths.get(exportDir).toAbsolutePath().normalize();
         Path output = Paths.get(outputDir).toAbsolutePath().normalize();
         log.info("Generating site from export={}, output={}", export, output);
+        BuildReport report = new BuildReport(streamEntries);
+        try (BuildReport.Span ignored = report.measure()) {
+            generate(export, output, report);
+        }
+        report.logSlowestEntries(20);
+        if (buildReport != null && !buildReport.isBlank()) {
+            report.write(Paths.get(buildReport));
+        }
+        return 0;
+    }
+
+    private void generate(Path export, Path output, BuildReport report) throws Exception {
+        Path iconIndex = iconIndexCache == null || iconIndexCache.isBlank()
+                ? null
+                : Paths.get(iconIndexCache).toAbsolutePath().normalize();
+        ExportBundle bundle = report.phase("open-export", () -> ExportBundle.open(export, iconIndex));
+        try (bundle) {
+            generate(bundle, resolveEmiRoot(export), output, report);
+        }
+    }
 
-        ExportBundle bundle = ExportBundle.open(export);
+    private void generate(ExportBundle bundle, Path emiRoot, Path output, BuildReport report) throws Exception {
         ExportModelLoader models = bundle.getAssets().getModels();
         models.setOutputDir(output);
+        models.setModelCacheSize(modelCacheSize);
 
-        Path emiRoot = resolveEmiRoot(export);
-        EmiRecipeIndex emiIndex = EmiRecipeIndex.load(emiRoot);
+        EmiRecipeIndex emiIndex = report.phase("load-emi", () -> EmiRecipeIndex.load(emiRoot));
 
-        ExportLocalizationManager l10n = new ExportLocalizationManager(bundle.getLangs());
+        ExportLocalizationManager l10n = report.phase("load-lang", () -> new ExportLocalizationManager(bundle.getLangs()));
         BlockstateRefResolver blockstateRefs =
                 new BlockstateRefResolver(bundle.getAssets(), bundle.getTagMembers());
         MultiblockRenderResolver multiblockResolver =
                 new MultiblockRenderResolver(bundle.getMultiblocks(), blockstateRefs);
-        TextureRenderer textureRenderer =
-                new TextureRenderer(models, l10n, bundle.getIcons(), multiblockResolver);
-        PageRenderer pageRenderer = new PageRenderer(
-                models, l10n, textureRenderer, emiIndex, bundle.getRecipeMountIds());
         SiteRenderer siteRenderer = new SiteRenderer(l10n, output.toString(), recipeBookBaseUrl);
 
-        siteRenderer.copyStaticFiles();
-        // Runtime assets: icons from export; GLBs + patchouli:image PNGs written during render.
-        // EMI bundle is copied separately by ci/run.sh build-site (not part of guide-export assets/).
-        siteRenderer.copyHandbookIcons(export);
+        try (BuildReport.Span ignored = report.phase("copy-static")) {
+            siteRenderer.copyStaticFiles();
+            // Runtime assets: icons from export; GLBs + patchouli:image PNGs written during render.
+            // EMI bundle is copied separately by ci/run.sh build-site (not part of guide-export assets/).
+            siteRenderer.copyHandbookIcons(bundle.getExportRoot());
+        }
 
-        Book fallback = bundle.getBooks().loadBook(FIELD_GUIDE);
+        Book fallback = report.phase("load-book", () -> bundle.getBooks().loadBook(FIELD_GUIDE));
         List<Language> languages = resolveLanguages(bundle);
-        for (Language lang : languages) {
-            Book book = lang == Language.EN_US
-                    ? fallback
-                    : bundle.getBooks().loadBook(FIELD_GUIDE, lang, fallback);
-            pageRenderer.setBookMacros(book.getMacros());
-            prepare(book, l10n, textureRenderer, pageRenderer);
-            siteRenderer.generate(book, textureRenderer);
+        if (fullLangTables) {
+            // pruned tables need each locale's own book, so they load in renderLocale instead
+            try (BuildReport.Span ignored = report.phase("load-locale-langs")) {
+                l10n.preload(languages);
+            }
+        }
+        String codeFingerprint = BuildManifest.codeFingerprint(codeLocation());
+        String fingerprint = BuildManifest.sharedFingerprint(codeFingerprint, bundle.getExportRoot(), emiRoot, recipeBookBaseUrl);
+        GlbCache glbCache = glbCacheDir == null || glbCacheDir.isBlank()
+                ? null
+                : new GlbCache(Paths.get(glbCacheDir).toAbsolutePath().normalize(), codeFingerprint);
+        SharedInputs shared = new SharedInputs(
+                bundle, l10n, emiIndex, multiblockResolver, glbCache, output, fallback, fingerprint, report);
+        try (BuildReport.Span ignored = report.phase("render-locales")) {
+            renderLocales(languages, shared);
+        }
+        models.getModelCacheStats().forEach(stats -> log.info("Model cache {}", stats));
+        log.info("Asset index {}", models.getAssetIndexStats());
+        if (glbCache != null) {
+            log.info("GLB cache {}", glbCache);
+            // partial runs (incremental or selected locales) never request some GLBs; keep them
+            if (!incremental && (locales == null || locales.isEmpty())) {
+                log.info("Pruned {} unused GLBs from cache", glbCache.prune());
+            }
         }
 
         log.info("Site generation complete: {}", output);
-        return 0;
+    }
+
+    /**
+     * Immutable state shared by every locale: the export bundle (icons, model caches, tag index),
+     * the persistent GLB cache, EN fallback translations, the EN book used as the entry list for
+     * other locales, the {@link BuildManifest#sharedFingerprint} of locale-independent inputs and
+     * the build report every locale records its timings in.
+     */
+    private record SharedInputs(
+            ExportBundle bundle,
+            ExportLocalizationManager l10n,
+            EmiRecipeIndex emiIndex,
+            MultiblockRenderResolver multiblockResolver,
+            GlbCache glbCache,
+            Path output,
+            Book fallback,
+            String fingerprint,
+            BuildReport report) {}
+
+    private void renderLocales(List<Language> languages, SharedInputs shared) throws Exception {
+        int threads = Math.max(1, Math.min(parallelLocales, languages.size()));
+        if (threads == 1) {
+            for (Language lang : languages) {
+                renderLocale(lang, shared);
+            }
+            return;
+        }
+
+        log.info("Rendering {} locales on {} threads", languages.size(), threads);
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "site-locale-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Language>> futures = new ArrayList<>();
+            for (Language lang : languages) {
+                futures.add(executor.submit(() -> {
+                    renderLocale(lang, shared);
+                    return lang;
+                }));
+            }
+            for (Future<Language> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void renderLocale(Language lang, SharedInputs shared) throws Exception {
+        BuildReport.LocaleReport timings = shared.report().locale(lang);
+        try (BuildReport.Span ignored = timings.measure()) {
+            renderLocale(lang, shared, timings);
+        }
+    }
+
+    /** Renders one locale with its own localization, texture, page and site renderers. */
+    private void renderLocale(Language lang, SharedInputs shared, BuildReport.LocaleReport timings) throws Exception {
+        ExportBundle bundle = shared.bundle();
+        ExportModelLoader models = bundle.getAssets().getModels();
+        Book book;
+        try (BuildReport.Span ignored = timings.phase("load-book")) {
+            book = lang == Language.EN_US
+                    ? shared.fallback()
+                    : bundle.getBooks().loadBook(FIELD_GUIDE, lang, shared.fallback());
+        }
+        ExportLocalizationManager l10n;
+        try (BuildReport.Span ignored = timings.phase("load-lang")) {
+            if (!fullLangTables) {
+                // the locale's own entry JSON can reference items the EN book does not
+                shared.l10n().restrictTo(lang, ReferencedLangKeys.collect(book, bundle.getTagMembers()));
+            }
+            l10n = shared.l10n().forLanguage(lang);
+        }
+        TextureRenderer textureRenderer =
+                new TextureRenderer(models, l10n, bundle.getIcons(), shared.multiblockResolver());
+        textureRenderer.setPackGlbAtlas(glbTextureAtlas);
+        textureRenderer.setGlbCache(shared.glbCache());
+        textureRenderer.setTimings(timings);
+        PageRenderer pageRenderer = new PageRenderer(
+                models, l10n, textureRenderer, shared.emiIndex(), bundle.getRecipeMountIds());
+        pageRenderer.setTimings(timings);
+        SiteRenderer siteRenderer = new SiteRenderer(l10n, shared.output().toString(), recipeBookBaseUrl);
+        siteRenderer.setSearchSharding(searchShards);
+
+        pageRenderer.setMacros(MacroExpander.compile(book.getMacros()));
+        BuildManifest manifest = BuildManifest.open(
+                Paths.get(Constants.CACHE, "site-manifest"), shared.output(), book, l10n, models, incremental, shared.fingerprint());
+        try (BuildReport.Span ignored = timings.phase("navigation")) {
+            prepareNavigation(book, l10n, pageRenderer.getMacros());
+        }
+        if (streamEntries) {
+            // entries render inside the page writes here, so "write-site" includes them
+            try (BuildReport.Span ignored = timings.phase("write-site")) {
+                siteRenderer.generateStreaming(book, textureRenderer,
+                        (category, entry) -> renderEntry(category, entry, l10n, models, textureRenderer, pageRenderer, manifest, timings));
+            }
+        } else {
+            try (BuildReport.Span ignored = timings.phase("render-entries")) {
+                for (BookCategory category : book.getCategories()) {
+                    for (BookEntry entry : category.getEntries()) {
+                        renderEntry(category, entry, l10n, models, textureRenderer, pageRenderer, manifest, timings);
+                    }
+                }
+            }
+            try (BuildReport.Span ignored = timings.phase("write-site")) {
+                siteRenderer.generate(book, textureRenderer);
+            }
+        }
+        try (BuildReport.Span ignored = timings.phase("save-manifest")) {
+            manifest.save();
+        }
+    }
+
+    /** Jar (or classes dir in dev) the generator runs from; templates and static files ship inside it. */
+    private static Path codeLocation() {
+        try {
+            return Paths.get(SiteGenerator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            log.warn("Cannot locate generator code, incremental builds will not notice code changes", e);
+            return null;
+        }
     }
 
     private Path resolveEmiRoot(Path export) {
@@ -148,48 +388,81 @@ public class SiteGenerator implements Callable<Integer> {
         return new ArrayList<>(bundle.getLangs().getLanguages());
     }
 
-    private void prepare(
-            Book book,
-            LocalizationManager localizationManager,
-            TextureRenderer textureRenderer,
-            PageRenderer pageRenderer) {
-        localizationManager.switchLanguage(book.getLanguage());
+    /** Names and descriptions every page's sidebar shows; runs before any entry is rendered. */
+    private void prepareNavigation(Book book, LocalizationManager localizationManager, MacroExpander macros) {
         book.setName(localizationManager.translate(book.getName()));
         book.setLandingText(localizationManager.translate(book.getLandingText()));
         log.info("Rendering lang={} book={}", book.getLanguage(), book.getName());
 
         for (BookCategory category : book.getCategories()) {
-            prepareCategory(category, localizationManager, book.getMacros());
+            prepareCategory(category, localizationManager, macros);
             for (BookEntry entry : category.getEntries()) {
-                if (entry.isRendered()) {
-                    continue;
-                }
-                prepareEntry(entry, textureRenderer);
-                for (BookPage page : entry.getPages()) {
-                    try {
-                        pageRenderer.renderPage(entry, page);
-                    } catch (InternalException e) {
-                        log.error("Failed to render page: {}", page, e);
-                    }
+                entry.setName(TextFormatter.stripVanillaFormatting(entry.getName()));
+            }
+        }
+    }
+
+    private void renderEntry(
+            BookCategory category,
+            BookEntry entry,
+            ExportLocalizationManager localizationManager,
+            ExportModelLoader models,
+            TextureRenderer textureRenderer,
+            PageRenderer pageRenderer,
+            BuildManifest manifest,
+            BuildReport.LocaleReport timings) {
+        if (entry.isRendered()) {
+            return;
+        }
+        try (BuildReport.Span ignored = timings.entry(category, entry)) {
+            renderEntry(category, entry, localizationManager, models, textureRenderer, pageRenderer, manifest);
+        }
+    }
+
+    private void renderEntry(
+            BookCategory category,
+            BookEntry entry,
+            ExportLocalizationManager localizationManager,
+            ExportModelLoader models,
+            TextureRenderer textureRenderer,
+            PageRenderer pageRenderer,
+            BuildManifest manifest) {
+        localizationManager.startRecording();
+        prepareEntry(entry, textureRenderer);
+        if (manifest.reuse(entry, category)) {
+            localizationManager.stopRecording();
+            entry.setRendered(true);
+            return;
+        }
+        models.startRecording();
+        Set<String> assets;
+        try {
+            for (BookPage page : entry.getPages()) {
+                try {
+                    pageRenderer.renderPage(entry, page);
+                } catch (InternalException e) {
+                    log.error("Failed to render page: {}", page, e);
                 }
-                entry.setInnerHtml(String.join("", entry.getBuffer()));
-                entry.setRendered(true);
             }
+        } finally {
+            assets = models.stopRecording();
         }
+        entry.setInnerHtml(String.join("", entry.getBuffer()));
+        entry.setRendered(true);
+        manifest.record(entry, category, localizationManager.stopRecording(), assets);
     }
 
     private void prepareCategory(
             BookCategory category,
             LocalizationManager localizationManager,
-            Map<String, String> bookMacros) {
+            MacroExpander macros) {
         category.setName(TextFormatter.stripVanillaFormatting(category.getName()));
         List<String> descriptionBuffer = new ArrayList<>();
-        TextFormatter.formatText(descriptionBuffer, category.getDescription(), localizationManager, bookMacros);
+        TextFormatter.formatText(descriptionBuffer, category.getDescription(), localizationManager, macros);
         category.setDescription(String.join("", descriptionBuffer));
     }
 
     private void prepareEntry(BookEntry entry, TextureRenderer textureRenderer) {
-        entry.setName(TextFormatter.stripVanillaFormatting(entry.getName()));
         try {
             ItemImageResult itemSrc = textureRenderer.getItemImage(entry.getIcon(), false);
             if (itemSrc != null) {
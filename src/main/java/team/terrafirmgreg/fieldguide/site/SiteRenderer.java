@@ -7,8 +7,8 @@ import team.terrafirmgreg.fieldguide.Constants;
 import team.terrafirmgreg.fieldguide.data.patchouli.Book;
 import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
 import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
-import team.terrafirmgreg.fieldguide.gson.JsonUtils;
 import team.terrafirmgreg.fieldguide.asset.ItemImageResult;
+import team.terrafirmgreg.fieldguide.jfr.TemplateRenderEvent;
 import team.terrafirmgreg.fieldguide.localization.I18n;
 import team.terrafirmgreg.fieldguide.localization.Language;
 import team.terrafirmgreg.fieldguide.localization.LocalizationManager;
@@ -21,6 +21,7 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
@@ -44,6 +45,7 @@ public class SiteRenderer {
     private final LocalizationManager localizationManager;
     private final String outputRootDir;
     private final String recipeBookBaseUrl;
+    private SearchIndexWriter.Sharding searchSharding = SearchIndexWriter.Sharding.NONE;
 
     public SiteRenderer(LocalizationManager localizationManager, String outputRootDir) throws IOException {
         this(localizationManager, outputRootDir, DEFAULT_RECIPE_BOOK_BASE_URL);
@@ -67,10 +69,14 @@ public class SiteRenderer {
         cfg.setFallbackOnNullLoopVariable(false);
     }
 
+    public void setSearchSharding(SearchIndexWriter.Sharding searchSharding) {
+        this.searchSharding = searchSharding;
+    }
+
     public void generate(Book book, TextureRenderer textureRenderer) throws Exception {
         buildHomePage(book.getCategories());
         buildSearchPage(book.getCategories());
-        saveSearchData(collectSearchTree(book.getCategories()));
+        saveSearchData(book.getCategories());
 
         for (BookCategory category : book.getCategories()) {
             buildCategoryPage(category, book.getCategories(), textureRenderer);
@@ -78,24 +84,53 @@ public class SiteRenderer {
         log.info("Static site generated under {}", outputRootDir);
     }
 
-    private List<Map<String, String>> collectSearchTree(List<BookCategory> categories) {
-        List<Map<String, String>> searchData = new ArrayList<>();
-        for (BookCategory category : categories) {
-            for (BookEntry entry : category.getEntries()) {
-                searchData.addAll(entry.getSearchTree());
+    /**
+     * {@code --stream-entries}: like {@link #generate}, but each entry is rendered by {@code renderEntry}
+     * just before its page is written, then its search records are streamed out and its HTML released.
+     * Navigation (category/entry names, descriptions) must already be prepared, since every page's
+     * sidebar lists it.
+     */
+    public void generateStreaming(Book book, TextureRenderer textureRenderer, BiConsumer<BookCategory, BookEntry> renderEntry)
+            throws Exception {
+        List<BookCategory> categories = book.getCategories();
+        buildHomePage(categories);
+        buildSearchPage(categories);
+
+        Path localeDir = Paths.get(outputRootDir, localizationManager.getCurrentLanguage().getKey());
+        try (SearchIndexWriter search = new SearchIndexWriter(localeDir, searchSharding)) {
+            for (BookCategory category : categories) {
+                writeCategoryPage(category, categories, textureRenderer);
+                search.beginCategory(category);
+                for (BookEntry entry : category.getEntries()) {
+                    renderEntry.accept(category, entry);
+                    buildEntryPage(category, categories, entry);
+                    search.addEntry(entry);
+                    entry.releaseRendered();
+                }
+                search.endCategory();
             }
         }
-        return searchData;
+        log.info("Static site generated under {}", outputRootDir);
     }
 
     public void generatePage(String templateName, String outputFileName, Map<String, Object> data)
             throws IOException, TemplateException {
+        TemplateRenderEvent event = new TemplateRenderEvent();
+        event.begin();
         Template template = cfg.getTemplate(templateName);
         Path outputPath = Paths.get(outputRootDir, localizationManager.getCurrentLanguage().getKey(), outputFileName);
         FileUtils.createParentDirectories(outputPath.toFile());
         try (Writer out = new OutputStreamWriter(Files.newOutputStream(outputPath), StandardCharsets.UTF_8)) {
             template.process(data, out);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.locale = localizationManager.getCurrentLanguage().getKey();
+            event.template = templateName;
+            event.outputFile = outputFileName;
+            event.bytes = Files.size(outputPath);
+            event.commit();
+        }
     }
 
     public void copyStaticFiles() throws IOException {
@@ -150,11 +185,25 @@ public class SiteRenderer {
         if (Files.exists(destIcons)) {
             FileUtils.deleteDirectory(destIcons.toFile());
         }
-        FileUtils.copyDirectory(srcIcons.toFile(), destIcons.toFile());
+        copyTree(srcIcons, destIcons);
         rewriteFieldGuideIconCss(destIcons);
         log.info("Copied field-guide icons to {}", destIcons);
     }
 
+    /** NIO copy so the export side may live in a zip file system. */
+    private static void copyTree(Path src, Path dest) throws IOException {
+        try (var paths = Files.walk(src)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = dest.resolve(src.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
     /** MWE emits {@code .icon-atlas}; rename so EMI footer CSS cannot override field-guide sprites. */
     private static void rewriteFieldGuideIconCss(Path iconsRoot) throws IOException {
         Path css = iconsRoot.resolve("icons.css");
@@ -254,17 +303,19 @@ public class SiteRenderer {
         generatePage("search.ftl", "search.html", data);
     }
 
-    public void saveSearchData(List<Map<String, String>> searchTree) throws IOException {
-        for (Map<String, String> result : searchTree) {
-            result.put("content", searchStrip(result.get("content")));
-        }
-        JsonUtils.writeFile(
-                Paths.get(outputRootDir, localizationManager.getCurrentLanguage().getKey(), "search_index.json").toFile(),
-                searchTree);
+    public void saveSearchData(List<BookCategory> categories) throws IOException {
+        Path localeDir = Paths.get(outputRootDir, localizationManager.getCurrentLanguage().getKey());
+        new SearchIndexWriter(localeDir, searchSharding).write(categories);
     }
 
     public void buildCategoryPage(BookCategory cat, List<BookCategory> categories, TextureRenderer textureRenderer)
             throws IOException, TemplateException {
+        writeCategoryPage(cat, categories, textureRenderer);
+        buildEntryPages(cat, categories);
+    }
+
+    private void writeCategoryPage(BookCategory cat, List<BookCategory> categories, TextureRenderer textureRenderer)
+            throws IOException, TemplateException {
         for (BookEntry entry : cat.getEntries()) {
             refreshCategoryCardIcon(entry, textureRenderer);
         }
@@ -275,7 +326,6 @@ public class SiteRenderer {
         data.put("categories", categories);
         data.put("current_category", cat);
         generatePage("category.ftl", cat.getId() + ".html", data);
-        buildEntryPages(cat, categories);
     }
 
     /** Category pages live one level shallower than entry pages; card icons need {@code ../} not {@code ../../}. */
@@ -292,18 +342,31 @@ public class SiteRenderer {
 
     private void buildEntryPages(BookCategory cat, List<BookCategory> categories) throws IOException, TemplateException {
         for (BookEntry entry : cat.getEntries()) {
-            Map<String, Object> data = basePageData("../..");
-            data.put("long_title", entry.getName() + " | " + localizationManager.translate(I18n.SHORT_TITLE));
-            data.put("short_description", entry.getName());
-            data.put("preview_image", cleanImagePath(entry.getIconPath()));
-            data.put("index", "../");
-            data.put("categories", categories);
-            data.put("current_category", cat);
-            data.put("current_entry", entry);
-            generatePage("entry.ftl", entry.getId() + ".html", data);
+            buildEntryPage(cat, categories, entry);
         }
     }
 
+    private void buildEntryPage(BookCategory cat, List<BookCategory> categories, BookEntry entry)
+            throws IOException, TemplateException {
+        if (entry.isUpToDate()) {
+            return; // --incremental: HTML from the previous build still matches
+        }
+        generatePage("entry.ftl", entry.getId() + ".html", entryPageData(cat, categories, entry));
+    }
+
+    /** Template model of {@code entry.ftl}; package-private for the page rendering benchmark. */
+    Map<String, Object> entryPageData(BookCategory cat, List<BookCategory> categories, BookEntry entry) {
+        Map<String, Object> data = basePageData("../..");
+        data.put("long_title", entry.getName() + " | " + localizationManager.translate(I18n.SHORT_TITLE));
+        data.put("short_description", entry.getName());
+        data.put("preview_image", cleanImagePath(entry.getIconPath()));
+        data.put("index", "../");
+        data.put("categories", categories);
+        data.put("current_category", cat);
+        data.put("current_entry", entry);
+        return data;
+    }
+
     private Map<String, Object> basePageData(String root) {
         Map<String, Object> data = new HashMap<>();
         data.put("handbookIconsRoot", handbookIconsRoot(root));
@@ -0,0 +1,67 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable lang key → text table: linear probing over parallel key/value arrays, at most half
+ * full, so a lookup is usually one hash and one {@code equals}. Safe to share between threads.
+ */
+final class TranslationTable {
+
+    private final String[] keys;
+    private final String[] values;
+    private final int size;
+
+    private TranslationTable(String[] keys, String[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    static TranslationTable of(Map<String, String> entries) {
+        int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, entries.size()) * 2 - 1) << 1);
+        String[] keys = new String[capacity];
+        String[] values = new String[capacity];
+        int mask = capacity - 1;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            int slot = spread(entry.getKey().hashCode()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entry.getKey();
+            values[slot] = entry.getValue();
+        }
+        return new TranslationTable(keys, values, entries.size());
+    }
+
+    /** Text for {@code key}, or {@code null}. */
+    String get(String key) {
+        int mask = keys.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.equals(key)) {
+                return values[slot];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(BiConsumer<String, String> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
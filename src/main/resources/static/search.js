@@ -1,7 +1,42 @@
 
-async function loadIndex() {
-    const response = await fetch(buildUrl(`/${getLang()}/search_index.json`));
-    return response.json();
+async function fetchJson(path) {
+    const response = await fetch(buildUrl(`/${getLang()}/${path}`));
+    return response.ok ? response.json() : null;
+}
+
+// One search_inverted.json, or (--search-shards CATEGORY) search/manifest.json listing the record
+// shards (one per category, record ids first..first+records-1) and tokenShards token files.
+// Sharded, only the token shards of the query's tokens are fetched (every token a query token is a
+// prefix of shares its first character), then only the record shards the hits fall in.
+// Returns token -> {tokens, postings} lookup plus a loader for the records of the hits.
+async function loadIndex(tokens) {
+    const manifest = await fetchJson('search/manifest.json');
+    if (!manifest) {
+        const index = await fetchJson('search_inverted.json');
+        return index && {
+            tokenIndex: () => index,
+            records: async ids => new Map(ids.map(id => {
+                const [entryIndex, content] = index.records[id];
+                const [entry, url] = index.entries[entryIndex];
+                return [id, { entry, url, content }];
+            })),
+        };
+    }
+    const tokenShard = token => token.charCodeAt(0) % manifest.tokenShards;
+    const needed = [...new Set(tokens.map(tokenShard))];
+    const loaded = await Promise.all(needed.map(shard => fetchJson(`search/tokens-${shard}.json`)));
+    const tokenShards = new Map(needed.map((shard, i) => [shard, loaded[i]]));
+    return {
+        tokenIndex: token => tokenShards.get(tokenShard(token)),
+        records: async ids => {
+            const shards = manifest.shards.filter(shard =>
+                ids.some(id => id >= shard.first && id < shard.first + shard.records));
+            const loaded = await Promise.all(shards.map(shard => fetchJson(`search/${shard.file}`)));
+            const records = new Map();
+            shards.forEach((shard, s) => (loaded[s] || []).forEach((record, i) => records.set(shard.first + i, record)));
+            return records;
+        },
+    };
 }
 
 function getQuery() {
@@ -34,25 +69,86 @@ function boldQuery(text, query) {
     return text.replace(regex, '<b>$1</b>');
 }
 
-async function performSearch(query) {
-    const data = await loadIndex();
-    const fuse = new Fuse(data, {
-        keys: ['content'],
-        includeScore: true,
-        threshold: 0.1,          // higher = more lenient
-        ignoreLocation: true,    // disable position penalty
-        minMatchCharLength: 2,   // ignore single-letter queries
-    });
-
-    let results = fuse.search(query);
-    const seenUrls = new Set();
-    results = results.filter(r => {
-        if (seenUrls.has(r.item.url)) {
-            return false;
+// Prebuilt inverted index, see InvertedIndexWriter / SearchTokenizer.
+// Tokenization must match SearchTokenizer.java exactly.
+const CJK = /[\p{Script=Han}\p{Script=Hiragana}\p{Script=Katakana}\p{Script=Hangul}]/u;
+const WORD = /[\p{L}\p{Nd}]/u;
+
+function tokenize(text) {
+    const chars = Array.from(text.normalize('NFKC').toLowerCase());
+    const tokens = [];
+    let i = 0;
+    while (i < chars.length) {
+        const start = i;
+        if (CJK.test(chars[i])) {
+            while (i < chars.length && CJK.test(chars[i])) i++;
+            for (let j = start; j < i - 1; j++) tokens.push(chars[j] + chars[j + 1]);
+            tokens.push(chars[i - 1]);
+        } else if (WORD.test(chars[i])) {
+            while (i < chars.length && WORD.test(chars[i]) && !CJK.test(chars[i])) i++;
+            if (i - start > 1) tokens.push(chars.slice(start, i).join(''));
+        } else {
+            i++;
         }
-        seenUrls.add(r.item.url);
-        return true;
-    });
+    }
+    return tokens;
+}
+
+// First position in the sorted token list that is >= prefix
+function lowerBound(tokens, prefix) {
+    let lo = 0, hi = tokens.length;
+    while (lo < hi) {
+        const mid = (lo + hi) >>> 1;
+        if (tokens[mid] < prefix) lo = mid + 1; else hi = mid;
+    }
+    return lo;
+}
+
+// Record id -> score for one query token: exact token 2, tokens it is a prefix of 1
+function matchToken(index, token) {
+    const scores = new Map();
+    if (!index) return scores;
+    for (let t = lowerBound(index.tokens, token); t < index.tokens.length && index.tokens[t].startsWith(token); t++) {
+        const weight = index.tokens[t] === token ? 2 : 1;
+        let record = 0;
+        for (const delta of index.postings[t]) {
+            record += delta;
+            if ((scores.get(record) || 0) < weight) scores.set(record, weight);
+        }
+    }
+    return scores;
+}
+
+async function search(query) {
+    const tokens = [...new Set(tokenize(query))];
+    if (tokens.length === 0) return [];
+    const index = await loadIndex(tokens);
+    if (!index) return [];
+    // every query token must match (AND); rarest token first keeps the candidate set small
+    const matches = tokens.map(token => matchToken(index.tokenIndex(token), token)).sort((a, b) => a.size - b.size);
+    const scores = new Map();
+    for (const [record, score] of matches[0]) {
+        let total = score;
+        for (let m = 1; m < matches.length && total > 0; m++) {
+            total = matches[m].has(record) ? total + matches[m].get(record) : 0;
+        }
+        if (total > 0) scores.set(record, total);
+    }
+    const records = await index.records([...scores.keys()]);
+    const lowerQuery = query.toLowerCase();
+    const best = new Map(); // url -> best result, one result per page
+    for (let [record, total] of scores) {
+        if (!records.has(record)) continue;
+        const { entry, url, content } = records.get(record);
+        if (entry.toLowerCase().includes(lowerQuery)) total += 3;
+        const current = best.get(url);
+        if (!current || total > current.score) best.set(url, { score: total, record, item: { entry, url, content } });
+    }
+    return [...best.values()].sort((a, b) => b.score - a.score || a.record - b.record);
+}
+
+async function performSearch(query) {
+    const results = await search(query);
     const resultsList = document.getElementById('results');
     resultsList.innerHTML = results
     .map(r => `<li><a href="${r.item.url}">${r.item.entry}</a><p>${boldQuery(r.item.content, query)}</p></li>`)
@@ -142,7 +142,6 @@
     </div>
 
     <script src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.3/dist/js/bootstrap.bundle.min.js" integrity="sha384-YvpcrYf0tY3lHB60NNkmXc5s9fDVZLESaAA55NDzOxhy9GkcIdslK1eN7N6jIeHz" crossorigin="anonymous"></script>
-    <script src="https://cdn.jsdelivr.net/npm/fuse.js@7.1.0"></script>
     <script src="${root}/static/icon-carousel.js"></script>
     <script src="${root}/static/icons.min.js"></script>
     <script src="${root}/static/tooltips.js"></script>
@@ -4,8 +4,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.ReadOnlyFileSystemException;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +34,38 @@ class ExportBundleTest {
         assertThrows(IllegalArgumentException.class, () -> ExportBundle.open(root));
     }
 
+    @Test
+    void readsZipInPlace(@TempDir Path dir) throws Exception {
+        Path zip = dir.resolve("guide-export.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            // CI artifacts wrap the export in one top-level folder
+            for (Map.Entry<String, String> file : Map.of(
+                    "guide-export/manifest.json", "{ \"schemaVersion\": \"1.0\" }",
+                    "guide-export/meta.json", "{}",
+                    "guide-export/lang/en_us.json", "{ \"item.tfc.anvil\": \"Anvil\" }",
+                    "guide-export/assets/tfc/entries/anvils.json", "{\"name\":\"Anvils\"}").entrySet()) {
+                out.putNextEntry(new ZipEntry(file.getKey()));
+                out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        ExportBundle bundle = ExportBundle.open(zip);
+        try (bundle) {
+            assertTrue(bundle.isArchive());
+            assertEquals("/guide-export", bundle.getExportRoot().toString());
+            assertFalse(bundle.getLangs().getLanguages().isEmpty());
+            assertEquals("{\"name\":\"Anvils\"}", new String(
+                    bundle.getAssets().getModels().getAsset("assets/tfc/entries/anvils.json").readAllBytes(),
+                    StandardCharsets.UTF_8));
+            if (bundle.getExportRoot().getFileSystem().isReadOnly()) {
+                assertThrows(ReadOnlyFileSystemException.class,
+                        () -> Files.writeString(bundle.getExportRoot().resolve("stray.txt"), "x"));
+            }
+        }
+        assertThrows(Exception.class, () -> Files.size(bundle.getExportRoot().resolve("meta.json")));
+    }
+
     @Test
     @EnabledIfSystemProperty(named = "guide.export.dir", matches = ".+")
     void opensRealExport() throws Exception {
@@ -0,0 +1,55 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportMetaTest {
+
+    @Test
+    void readsTypedSectionsAndSkipsTheRest(@TempDir Path root) throws Exception {
+        Files.writeString(root.resolve("meta.json"), """
+                {
+                  "recipes": { "tfc:anvil/ingot": { "inputs": [1, 2, 3] } },
+                  "multiblockDefs": [
+                    { "id": "tfc:bloomery", "source": "patchouli_registry", "pattern": [["A"]],
+                      "mapping": { "A": "tfc:bloomery" } }
+                  ],
+                  "blockstates": [
+                    { "ref": "tfc:bloomery", "model": "tfc:block/bloomery" },
+                    { "model": "no_ref" }
+                  ],
+                  "refs": {
+                    "items": ["tfc:powder/flux"],
+                    "recipeMountIds": { "tfc:anvil/ingot": "viewer:/tfc/anvil/ingot", "blank": "", "num": 3 }
+                  }
+                }
+                """);
+
+        ExportMeta meta = ExportMeta.load(root);
+        assertEquals(List.of("recipes", "multiblockDefs", "blockstates", "refs"), meta.getSectionNames());
+        assertTrue(meta.getMultiblocks().resolve("tfc:bloomery").orElseThrow().isOk());
+        assertEquals(Set.of("tfc:bloomery"), meta.getBlockstates().keySet());
+        assertEquals("tfc:block/bloomery", meta.getBlockstates().get("tfc:bloomery").get("model"));
+        assertEquals(Map.of("tfc:anvil/ingot", "viewer:/tfc/anvil/ingot"), meta.getRecipeMountIds());
+
+        Map<?, ?> recipes = (Map<?, ?>) meta.section("recipes");
+        assertTrue(recipes.containsKey("tfc:anvil/ingot"));
+        assertNull(meta.section("missing"));
+    }
+
+    @Test
+    void emptyWhenMissing() {
+        ExportMeta meta = ExportMeta.load(Path.of("nonexistent-dir-missing-meta"));
+        assertTrue(meta.getBlockstates().isEmpty());
+        assertTrue(meta.getRecipeMountIds().isEmpty());
+        assertTrue(meta.getMultiblocks().resolve("tfc:bloomery").isEmpty());
+    }
+}
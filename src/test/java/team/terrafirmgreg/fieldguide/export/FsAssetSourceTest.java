@@ -0,0 +1,67 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.asset.Asset;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FsAssetSourceTest {
+
+    @Test
+    void listsRecursivelyAndOpensOnRead(@TempDir Path root) throws Exception {
+        Path entries = root.resolve("assets/tfc/entries");
+        Files.createDirectories(entries.resolve("mechanics"));
+        Files.writeString(entries.resolve("mechanics/bloomery.json"), "{\"name\":\"Bloomery\"}");
+        Files.writeString(entries.resolve("anvils.json"), "{}");
+
+        FsAssetSource source = new FsAssetSource(root);
+        List<Asset> assets = source.listAssets("assets/tfc/entries");
+        assertEquals(List.of("assets/tfc/entries/anvils.json", "assets/tfc/entries/mechanics/bloomery.json"),
+                assets.stream().map(Asset::getPath).toList());
+
+        Asset bloomery = assets.get(1);
+        Files.writeString(entries.resolve("mechanics/bloomery.json"), "{\"name\":\"Bloomery!\"}");
+        assertEquals("{\"name\":\"Bloomery!\"}", new String(bloomery.readAllBytes(), StandardCharsets.UTF_8));
+        try (InputStream in = bloomery.getInputStream()) {
+            assertArrayEquals(bloomery.readAllBytes(), in.readAllBytes());
+        }
+        assertTrue(source.listAssets("assets/tfc/missing").isEmpty());
+    }
+
+    @Test
+    void answersLookupsFromOneWalk(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("assets/tfc/models/item"));
+        Files.writeString(root.resolve("assets/tfc/models/item/anvil.json"), "{}");
+        Files.createDirectories(root.resolve("data/tfc/patchouli_books/field_guide"));
+        Files.writeString(root.resolve("data/tfc/patchouli_books/field_guide/book.json"), "{}");
+        Files.createDirectories(root.resolve("lang"));
+
+        FsAssetSource source = new FsAssetSource(root);
+        assertTrue(source.exists("assets/tfc/models/item/anvil.json"));
+        assertTrue(source.exists("data/tfc/patchouli_books/field_guide/book.json"));
+        assertTrue(source.isDirectory("assets/tfc/models"));
+        assertFalse(source.exists("assets/tfc/models/item/bloomery.json"));
+        assertEquals(List.of("assets/tfc/models/item/anvil.json"),
+                source.listAssets("assets/tfc").stream().map(Asset::getPath).toList());
+
+        // indexed once: later files under assets/ are not seen, paths outside it still probe disk
+        Files.writeString(root.resolve("assets/tfc/models/item/bloomery.json"), "{}");
+        Files.writeString(root.resolve("lang/en_us.json"), "{}");
+        assertFalse(source.exists("assets/tfc/models/item/bloomery.json"));
+        assertTrue(source.exists("lang/en_us.json"));
+
+        AssetPathIndex.Stats stats = source.indexStats();
+        assertEquals(2, stats.files());
+        assertEquals(4, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.fallbacks());
+        assertEquals(6, stats.probesAvoided());
+    }
+}
@@ -0,0 +1,179 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.render3d.material.Material;
+import team.terrafirmgreg.fieldguide.render3d.material.Texture;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector2f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
+import team.terrafirmgreg.fieldguide.render3d.scene.Mesh;
+import team.terrafirmgreg.fieldguide.render3d.scene.Node;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlTFExporterTest {
+
+    @Test
+    void writesGlbWithAccessorBoundsAndTexture(@TempDir Path dir) throws Exception {
+        Material material = new Material();
+        material.setDiffuseMap(new Texture(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "stone"));
+
+        Node root = new Node();
+        root.attachChild(quad(material, 0));
+        Geometry shifted = quad(material, 0);
+        shifted.getLocalTransform().setTranslation(2, 0, 0);
+        root.attachChild(shifted);
+
+        Path file = dir.resolve("model.glb");
+        new GlTFExporter().setMergeMeshes(false).export(root, file.toString());
+
+        ByteBuffer glb = readGlb(file);
+        int jsonLength = glb.getInt(12);
+        JsonObject gltf = gltfJson(glb);
+        int binStart = 20 + jsonLength + 8;
+
+        // mesh 1 POSITION: quad translated by +2 on x
+        JsonObject attributes = gltf.getAsJsonArray("meshes").get(1).getAsJsonObject()
+                .getAsJsonArray("primitives").get(0).getAsJsonObject().getAsJsonObject("attributes");
+        JsonObject position = gltf.getAsJsonArray("accessors")
+                .get(attributes.get("POSITION").getAsInt()).getAsJsonObject();
+        assertEquals(4, position.get("count").getAsInt());
+        assertArray(position.getAsJsonArray("min"), 2, 0, 0);
+        assertArray(position.getAsJsonArray("max"), 3, 1, 0);
+
+        JsonObject view = gltf.getAsJsonArray("bufferViews")
+                .get(position.get("bufferView").getAsInt()).getAsJsonObject();
+        int offset = binStart + view.get("byteOffset").getAsInt();
+        assertEquals(48, view.get("byteLength").getAsInt());
+        assertEquals(3f, glb.getFloat(offset + 12)); // vertex 1 x
+        assertEquals(1f, glb.getFloat(offset + 24 + 4)); // vertex 2 y
+
+        // both quads share one material, the texture is embedded once
+        assertEquals(1, gltf.getAsJsonArray("materials").size());
+        assertEquals(1, gltf.getAsJsonArray("images").size());
+        JsonObject imageView = gltf.getAsJsonArray("bufferViews")
+                .get(gltf.getAsJsonArray("images").get(0).getAsJsonObject().get("bufferView").getAsInt())
+                .getAsJsonObject();
+        assertEquals(0, imageView.get("byteOffset").getAsInt() % 4);
+        assertEquals((byte) 0x89, glb.get(binStart + imageView.get("byteOffset").getAsInt())); // PNG magic
+    }
+
+    @Test
+    void mergesGeometriesSharingMaterialAndDedupesVertices(@TempDir Path dir) throws Exception {
+        Material material = new Material();
+        material.setDiffuseMap(new Texture(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "stone"));
+
+        // same face emitted twice (e.g. by two model elements): vertices are identical after merging
+        Node root = new Node();
+        root.attachChild(quad(material, 0));
+        root.attachChild(quad(material, 0));
+
+        Path file = dir.resolve("merged.glb");
+        new GlTFExporter().export(root, file.toString());
+
+        JsonObject gltf = gltfJson(readGlb(file));
+        assertEquals(1, gltf.getAsJsonArray("meshes").size());
+        assertEquals(1, gltf.getAsJsonArray("nodes").size());
+        JsonObject primitive = gltf.getAsJsonArray("meshes").get(0).getAsJsonObject()
+                .getAsJsonArray("primitives").get(0).getAsJsonObject();
+        JsonObject position = gltf.getAsJsonArray("accessors")
+                .get(primitive.getAsJsonObject("attributes").get("POSITION").getAsInt()).getAsJsonObject();
+        JsonObject indices = gltf.getAsJsonArray("accessors")
+                .get(primitive.get("indices").getAsInt()).getAsJsonObject();
+
+        assertEquals(4, position.get("count").getAsInt());
+        assertEquals(12, indices.get("count").getAsInt());
+        assertEquals(5123, indices.get("componentType").getAsInt()); // UNSIGNED_SHORT
+        assertEquals(3, indices.getAsJsonArray("max").get(0).getAsInt());
+    }
+
+    @Test
+    void reusedExporterWritesSameBytesAsFreshOne(@TempDir Path dir) throws Exception {
+        Material material = new Material();
+        material.setDiffuseMap(new Texture(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "stone"));
+        Node large = new Node();
+        for (int i = 0; i < 8; i++) {
+            large.attachChild(quad(material, i));
+        }
+        Node small = new Node();
+        small.attachChild(quad(material, 0));
+
+        GlTFExporter reused = new GlTFExporter().setMergeMeshes(false);
+        reused.export(large, dir.resolve("large.glb").toString());
+        reused.export(small, dir.resolve("small.glb").toString());
+        new GlTFExporter().setMergeMeshes(false).export(small, dir.resolve("fresh.glb").toString());
+
+        assertArrayEquals(Files.readAllBytes(dir.resolve("fresh.glb")), Files.readAllBytes(dir.resolve("small.glb")));
+    }
+
+    @Test
+    void fingerprintFollowsSceneContent() {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        Material material = new Material();
+        material.setDiffuseMap(new Texture(image, "stone"));
+        Node root = new Node();
+        Geometry geometry = quad(material, 0);
+        root.attachChild(geometry);
+
+        // an identical scene built from scratch hashes the same
+        Material copy = new Material();
+        copy.setDiffuseMap(new Texture(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "stone"));
+        Node same = new Node();
+        same.attachChild(quad(copy, 0));
+
+        String hash = new GlTFExporter().fingerprint(root);
+        assertEquals(hash, new GlTFExporter().fingerprint(same));
+        assertNotEquals(hash, new GlTFExporter().setPackAtlas(true).fingerprint(root));
+
+        image.setRGB(3, 4, 0xFF00FF00);
+        assertNotEquals(hash, new GlTFExporter().fingerprint(root));
+        image.setRGB(3, 4, 0);
+        geometry.getLocalTransform().setTranslation(0, 1, 0);
+        assertNotEquals(hash, new GlTFExporter().fingerprint(root));
+    }
+
+    private static ByteBuffer readGlb(Path file) throws Exception {
+        ByteBuffer glb = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x46546C67, glb.getInt(0));
+        assertEquals(glb.capacity(), glb.getInt(8));
+        int jsonLength = glb.getInt(12);
+        assertEquals(0, jsonLength % 4);
+        JsonObject gltf = gltfJson(glb);
+        assertEquals(gltf.getAsJsonArray("buffers").get(0).getAsJsonObject().get("byteLength").getAsInt(),
+                glb.getInt(20 + jsonLength));
+        return glb;
+    }
+
+    private static JsonObject gltfJson(ByteBuffer glb) {
+        return JsonParser.parseString(
+                new String(glb.array(), 20, glb.getInt(12), StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    private static Geometry quad(Material material, float z) {
+        Vector3f[] positions = {
+                new Vector3f(0, 0, z), new Vector3f(1, 0, z), new Vector3f(1, 1, z), new Vector3f(0, 1, z)};
+        Vector3f[] normals = {
+                new Vector3f(0, 0, 1), new Vector3f(0, 0, 1), new Vector3f(0, 0, 1), new Vector3f(0, 0, 1)};
+        Vector2f[] uvs = {new Vector2f(0, 0), new Vector2f(1, 0), new Vector2f(1, 1), new Vector2f(0, 1)};
+        int[] indexes = {0, 1, 2, 0, 2, 3};
+        return new Geometry(new Mesh(positions, indexes, uvs, normals, null), material);
+    }
+
+    private static void assertArray(JsonArray actual, float... expected) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual.get(i).getAsFloat(), 1e-6);
+        }
+    }
+}
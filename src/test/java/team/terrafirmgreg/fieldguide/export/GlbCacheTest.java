@@ -0,0 +1,56 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlbCacheTest {
+
+    @Test
+    void restoresStoredGlbAndPrunesUnusedEntries(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        Path glb = dir.resolve("site/a.glb");
+        Files.createDirectories(glb.getParent());
+        Files.write(glb, new byte[]{1, 2, 3});
+
+        GlbCache first = new GlbCache(cacheDir);
+        assertFalse(first.restore("aaaa", glb));
+        first.store("aaaa", glb);
+        first.store("bbbb", glb);
+
+        // next run: only "aaaa" is still part of the book
+        GlbCache second = new GlbCache(cacheDir);
+        Path target = dir.resolve("fresh/a.glb");
+        assertTrue(second.restore("aaaa", target));
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(target));
+        assertEquals(1, second.prune());
+        assertTrue(Files.exists(cacheDir.resolve("aaaa.glb")));
+        assertFalse(Files.exists(cacheDir.resolve("bbbb.glb")));
+    }
+
+    @Test
+    void inputsHitOnlyWhileEveryAssetHashMatches(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        Path glb = dir.resolve("site/a.glb");
+        Files.createDirectories(glb.getParent());
+        Files.write(glb, new byte[]{1, 2, 3});
+        GlbCache cache = new GlbCache(cacheDir, "code-1");
+        cache.store("aaaa", glb);
+        cache.storeInputs("SS|S:minecraft:stone|", "aaaa", Map.of("assets/minecraft/textures/block/stone.png", "h1"));
+
+        Map<String, String> hashes = new HashMap<>(Map.of("assets/minecraft/textures/block/stone.png", "h1"));
+        GlbCache next = new GlbCache(cacheDir, "code-1");
+        assertEquals("aaaa", next.lookup("SS|S:minecraft:stone|", hashes::get).orElseThrow().scene());
+        assertTrue(next.lookup("SS|S:minecraft:granite|", hashes::get).isEmpty());
+        assertTrue(new GlbCache(cacheDir, "code-2").lookup("SS|S:minecraft:stone|", hashes::get).isEmpty());
+
+        hashes.put("assets/minecraft/textures/block/stone.png", "h2");
+        assertTrue(next.lookup("SS|S:minecraft:stone|", hashes::get).isEmpty());
+    }
+}
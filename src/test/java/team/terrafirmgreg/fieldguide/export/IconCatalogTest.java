@@ -3,8 +3,15 @@ package team.terrafirmgreg.fieldguide.export;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,4 +60,132 @@ class IconCatalogTest {
         assertEquals(IconCatalog.MISSING_ICON_ID, ref.registryId());
         assertTrue(report.missing().contains("missing:item"));
     }
+
+    @Test
+    void cropsSpritesDecodingEachPageOnce(@TempDir Path root) throws Exception {
+        Path iconsDir = root.resolve("assets/icons");
+        Files.createDirectories(iconsDir);
+        Files.writeString(iconsDir.resolve("index.json"), """
+                {
+                  "cellSize": 2,
+                  "items": {
+                    "a": { "page": 0, "x": 0, "y": 0 },
+                    "b": { "page": 0, "x": 2, "y": 0 },
+                    "c": { "page": 1, "x": 0, "y": 0 }
+                  }
+                }
+                """);
+        writePage(iconsDir.resolve("atlas-000.png"), 0xFFFF0000, 0xFF00FF00);
+        writePage(iconsDir.resolve("atlas-001.png"), 0xFF0000FF, 0xFF0000FF);
+
+        IconCatalog catalog = IconCatalog.load(root);
+        IconRef a = catalog.resolveItem("a").orElseThrow();
+        IconRef b = catalog.resolveItem("b").orElseThrow();
+        IconRef c = catalog.resolveItem("c").orElseThrow();
+        Map<IconRef, BufferedImage> sprites = catalog.cropSprites(List.of(c, a, b, a), true);
+        assertEquals(List.of(c, a, b), List.copyOf(sprites.keySet()));
+        assertEquals(0xFFFF0000, sprites.get(a).getRGB(1, 1));
+        assertEquals(0xFF00FF00, sprites.get(b).getRGB(0, 0));
+        assertEquals(0xFF0000FF, sprites.get(c).getRGB(1, 0));
+        assertEquals(2, catalog.atlasPagesDecoded());
+
+        assertEquals(0xFF00FF00, catalog.cropSprite(b).getRGB(1, 1));
+        assertEquals(2, catalog.atlasPagesDecoded());
+        catalog.setAtlasCacheBytes(0);
+        catalog.cropSprite(b);
+        assertEquals(3, catalog.atlasPagesDecoded());
+    }
+
+    @Test
+    void reusesBinaryIndexUntilJsonChanges(@TempDir Path root) throws Exception {
+        Path iconsDir = root.resolve("assets/icons");
+        Files.createDirectories(iconsDir);
+        Path index = iconsDir.resolve("index.json");
+        Files.writeString(index, """
+                {
+                  "items": {
+                    "minecraft:dirt": { "page": 2, "x": 64, "y": 96 },
+                    "tfc:metal/ingot/bismuth_bronze": { "page": 0, "x": 32, "y": 0 }
+                  },
+                  "cellSize": 16
+                }
+                """);
+        Path sidecar = root.resolve("cache/icons-index.bin");
+
+        IconCatalog parsed = IconCatalog.load(root, new MissingIconReport(), sidecar);
+        assertTrue(Files.isRegularFile(sidecar));
+        IconCatalog mapped = IconCatalog.load(root, new MissingIconReport(), sidecar);
+        assertEquals(parsed.resolveItem("minecraft:dirt"), mapped.resolveItem("minecraft:dirt"));
+        IconRef ref = mapped.resolveItem("minecraft:dirt").orElseThrow();
+        assertEquals(16, ref.cellSize());
+        assertEquals(2, ref.page());
+        assertEquals(96, ref.y());
+        assertSame(ref, mapped.resolveItem("minecraft:dirt").orElseThrow());
+
+        Files.writeString(index, """
+                { "cellSize": 16, "items": { "minecraft:dirt": { "page": 1, "x": 0, "y": 0 } } }
+                """);
+        Files.setLastModifiedTime(index, FileTime.fromMillis(0));
+        IconCatalog reparsed = IconCatalog.load(root, new MissingIconReport(), sidecar);
+        assertEquals(1, reparsed.resolveItem("minecraft:dirt").orElseThrow().page());
+        assertTrue(reparsed.resolveItem("tfc:metal/ingot/bismuth_bronze").isEmpty());
+    }
+
+    @Test
+    void reparsesCorruptBinaryIndex(@TempDir Path root) throws Exception {
+        Path iconsDir = root.resolve("assets/icons");
+        Files.createDirectories(iconsDir);
+        Files.writeString(iconsDir.resolve("index.json"), """
+                { "cellSize": 16, "items": { "minecraft:dirt": { "page": 2, "x": 64, "y": 96 } } }
+                """);
+        Path sidecar = root.resolve("cache/icons-index.bin");
+        IconCatalog.load(root, new MissingIconReport(), sidecar);
+
+        // header is magic, version, 64-char source hash, cellSize, count; then the first id's length
+        byte[] valid = Files.readAllBytes(sidecar);
+        byte[] negativeLength = valid.clone();
+        ByteBuffer.wrap(negativeLength).putInt(80, -1);
+        byte[] hugeCount = valid.clone();
+        ByteBuffer.wrap(hugeCount).putInt(76, Integer.MAX_VALUE);
+        for (byte[] corrupt : List.of(negativeLength, hugeCount, Arrays.copyOf(valid, valid.length - 3))) {
+            Files.write(sidecar, corrupt);
+            IconCatalog catalog = IconCatalog.load(root, new MissingIconReport(), sidecar);
+            assertEquals(96, catalog.resolveItem("minecraft:dirt").orElseThrow().y());
+        }
+    }
+
+    @Test
+    void ignoresSidecarOfAnotherExportWithSameSizeAndTime(@TempDir Path root) throws Exception {
+        Path sidecar = root.resolve("cache/icons-index.bin");
+        Path first = root.resolve("first");
+        Path second = root.resolve("second");
+        for (Path export : List.of(first, second)) {
+            Files.createDirectories(export.resolve("assets/icons"));
+        }
+        // same length and timestamp, as unpacked artifacts with normalized times have
+        Path firstIndex = Files.writeString(first.resolve("assets/icons/index.json"), """
+                { "cellSize": 16, "items": { "minecraft:dirt": { "page": 1, "x": 0, "y": 0 } } }
+                """);
+        Path secondIndex = Files.writeString(second.resolve("assets/icons/index.json"), """
+                { "cellSize": 16, "items": { "minecraft:dirt": { "page": 2, "x": 0, "y": 0 } } }
+                """);
+        Files.setLastModifiedTime(firstIndex, FileTime.fromMillis(0));
+        Files.setLastModifiedTime(secondIndex, FileTime.fromMillis(0));
+
+        assertEquals(1, IconCatalog.load(first, new MissingIconReport(), sidecar)
+                .resolveItem("minecraft:dirt").orElseThrow().page());
+        assertEquals(2, IconCatalog.load(second, new MissingIconReport(), sidecar)
+                .resolveItem("minecraft:dirt").orElseThrow().page());
+    }
+
+    /** 4x2 page: left cell {@code left}, right cell {@code right}. */
+    private static void writePage(Path file, int left, int right) throws Exception {
+        BufferedImage page = new BufferedImage(4, 2, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 4; x++) {
+                page.setRGB(x, y, x < 2 ? left : right);
+            }
+        }
+        ImageIO.write(page, "png", file.toFile());
+    }
 }
@@ -7,6 +7,7 @@ import team.terrafirmgreg.fieldguide.site.ExportLocalizationManager;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +31,26 @@ class LangCatalogTest {
         l10n.switchLanguage(Language.ZH_CN);
         assertEquals("实地指南", l10n.translate("patchouli.tfg.title"));
     }
+
+    @Test
+    void viewsShareTablesWithEnglishFallback(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("lang"));
+        Files.writeString(root.resolve("lang/en_us.json"), """
+                { "item.tfc.anvil": "Anvil", "item.tfc.bloomery": "Bloomery", "nested": { "x": 1 } }
+                """);
+        Files.writeString(root.resolve("lang/zh_cn.json"), """
+                { "item.tfc.anvil": "铁砧" }
+                """);
+
+        ExportLocalizationManager l10n = new ExportLocalizationManager(LangCatalog.load(root), root.resolve("site-lang"));
+        l10n.preload(List.of(Language.EN_US, Language.ZH_CN));
+        ExportLocalizationManager zh = l10n.forLanguage(Language.ZH_CN);
+        ExportLocalizationManager en = l10n.forLanguage(Language.EN_US);
+        assertEquals("铁砧", zh.translate("item.tfc.anvil"));
+        assertEquals("Bloomery", zh.translate("missing.key", "item.tfc.bloomery"));
+        assertEquals("Anvil", en.translate("item.tfc.anvil"));
+        assertEquals("nested", zh.translate("nested"));
+        assertEquals(Language.EN_US, l10n.getCurrentLanguage());
+        assertNull(zh.lookup("missing.key"));
+    }
 }
@@ -0,0 +1,97 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCacheTest {
+
+    @Test
+    void loadsEachKeyOnceAndCountsHits() {
+        ModelCache<String> cache = new ModelCache<>("test");
+        AtomicInteger loads = new AtomicInteger();
+
+        // child loader recurses into the cache for its parent, like BlockModel parent chains
+        for (int i = 0; i < 3; i++) {
+            assertEquals("child<parent", cache.get("child", key -> {
+                loads.incrementAndGet();
+                return key + "<" + cache.get("parent", p -> {
+                    loads.incrementAndGet();
+                    return p;
+                });
+            }));
+        }
+
+        assertEquals(2, loads.get());
+        ModelCache.Stats stats = cache.stats();
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.size());
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        ModelCache<String> cache = new ModelCache<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("minecraft:block/cube_all", key -> {
+                        loads.incrementAndGet();
+                        return key;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("minecraft:block/cube_all", future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        ModelCache<String> cache = new ModelCache<>("test");
+        assertThrows(IllegalArgumentException.class, () -> cache.get("broken", key -> {
+            throw new IllegalArgumentException(key);
+        }));
+        assertEquals("ok", cache.get("broken", key -> "ok"));
+    }
+
+    @Test
+    void evictsOldestButKeepsPinned() {
+        ModelCache<String> cache = new ModelCache<>("test", 2);
+        cache.pin("builtin", "builtin");
+        cache.get("a", key -> key);
+        cache.get("b", key -> key);
+        cache.get("c", key -> key);
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(3, cache.size());
+        assertEquals("reloaded", cache.get("a", key -> "reloaded"));
+        assertEquals("builtin", cache.get("builtin", key -> "never"));
+    }
+
+    @Test
+    void rejectsParentCycle() {
+        ModelCache<String> cache = new ModelCache<>("test");
+        assertThrows(IllegalStateException.class,
+                () -> cache.get("a", a -> cache.get("b", b -> cache.get("a", x -> x))));
+    }
+}
@@ -1,7 +1,10 @@
 package team.terrafirmgreg.fieldguide.export;
 
+import com.google.gson.stream.JsonReader;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -9,23 +12,33 @@ import static org.junit.jupiter.api.Assertions.*;
 class RecipeMountIdsTest {
 
     @Test
-    void readsRecipeMountIdsFromRefs() {
-        Map<String, Object> meta = Map.of(
-                "refs",
-                Map.of(
-                        "recipeMountIds",
-                        Map.of(
-                                "tfc:barrel/soaked_papyrus_strip",
-                                "toomanyrecipeviewers:/tfc/barrel/soaked_papyrus_strip")));
-        Map<String, String> mounts = RecipeMountIds.fromMeta(meta);
+    void readsRecipeMountIds() throws IOException {
+        Map<String, String> mounts = read("""
+                { "tfc:barrel/soaked_papyrus_strip": "toomanyrecipeviewers:/tfc/barrel/soaked_papyrus_strip" }
+                """);
         assertEquals(
                 "toomanyrecipeviewers:/tfc/barrel/soaked_papyrus_strip",
                 mounts.get("tfc:barrel/soaked_papyrus_strip"));
     }
 
     @Test
-    void emptyWhenMissing() {
-        assertTrue(RecipeMountIds.fromMeta(Map.of()).isEmpty());
-        assertTrue(RecipeMountIds.fromMeta(null).isEmpty());
+    void skipsBlankAndNonStringIds() throws IOException {
+        Map<String, String> mounts = read("""
+                { "": "emi:/blank_key", "tfc:blank": " ", "tfc:number": 3, "tfc:object": { "id": "x" },
+                  "tfc:kept": "emi:/kept" }
+                """);
+        assertEquals(Map.of("tfc:kept", "emi:/kept"), mounts);
+    }
+
+    @Test
+    void emptyWhenNotAnObject() throws IOException {
+        assertTrue(read("[\"tfc:a\"]").isEmpty());
+        assertTrue(read("null").isEmpty());
+    }
+
+    private static Map<String, String> read(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return RecipeMountIds.read(reader);
+        }
     }
 }
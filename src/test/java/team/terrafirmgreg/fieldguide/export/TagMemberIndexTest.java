@@ -28,4 +28,31 @@ class TagMemberIndexTest {
         assertEquals(List.of("minecraft:copper_ingot"), idx.getItemMembers("forge:ingots/copper"));
         assertTrue(idx.getBlockMembers("forge:ingots/copper").isEmpty());
     }
+
+    @Test
+    void reverseLookupListsContainingTags(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("index"));
+        Files.writeString(root.resolve("index/tag-members.json"), """
+                {
+                  "schema": 2,
+                  "items": {
+                    "forge:ingots": ["minecraft:copper_ingot", "minecraft:iron_ingot"],
+                    "forge:ingots/iron": ["minecraft:iron_ingot"],
+                    "broken": "not-a-list"
+                  },
+                  "blocks": {
+                    "minecraft:mineable/pickaxe": ["minecraft:stone", 7, "minecraft:iron_ingot"]
+                  }
+                }
+                """);
+
+        TagMemberIndex idx = TagMemberIndex.load(root);
+        assertEquals(List.of("minecraft:copper_ingot", "minecraft:iron_ingot"), idx.getItemMembers("forge:ingots"));
+        assertEquals(List.of("forge:ingots", "forge:ingots/iron"), idx.getItemTags("minecraft:iron_ingot"));
+        assertEquals(List.of("minecraft:mineable/pickaxe"), idx.getBlockTags("minecraft:iron_ingot"));
+        assertEquals(List.of("minecraft:stone", "minecraft:iron_ingot"), idx.getBlockMembers("minecraft:mineable/pickaxe"));
+        assertTrue(idx.getItemTags("minecraft:stone").isEmpty());
+        assertTrue(idx.getFluidTags("minecraft:water").isEmpty());
+        assertTrue(idx.getItemMembers("broken").isEmpty());
+    }
 }
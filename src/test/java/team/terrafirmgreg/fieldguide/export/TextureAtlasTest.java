@@ -0,0 +1,103 @@
+package team.terrafirmgreg.fieldguide.export;
+
+import org.junit.jupiter.api.Test;
+import team.terrafirmgreg.fieldguide.render3d.material.Material;
+import team.terrafirmgreg.fieldguide.render3d.material.RenderState;
+import team.terrafirmgreg.fieldguide.render3d.material.Texture;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector2f;
+import team.terrafirmgreg.fieldguide.render3d.math.Vector3f;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
+import team.terrafirmgreg.fieldguide.render3d.scene.Mesh;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextureAtlasTest {
+
+    @Test
+    void packsSameRenderStateIntoOneTextureAndRemapsUvs() {
+        Material red = material(0xFFFF0000);
+        Material blue = material(0xFF0000FF);
+        Geometry first = quad(red);
+        Geometry second = quad(blue);
+
+        List<Geometry> packed = TextureAtlas.pack(List.of(first, second));
+
+        assertEquals(2, packed.size());
+        Material atlas = packed.get(0).getMaterial();
+        assertSame(atlas, packed.get(1).getMaterial());
+        assertFalse(atlas.getDiffuseMap().isMipmaps());
+
+        // every remapped UV must sample the original texture's colour, including the corners
+        BufferedImage image = atlas.getDiffuseMap().getImage();
+        assertColour(image, packed.get(0), 0xFFFF0000);
+        assertColour(image, packed.get(1), 0xFF0000FF);
+    }
+
+    @Test
+    void atlasMaterialKeepsEveryGroupedProperty() {
+        Material red = material(0xFFFF0000);
+        Material blue = material(0xFF0000FF);
+        for (Material material : List.of(red, blue)) {
+            RenderState state = material.getRenderState();
+            state.setAlphaTest(true);
+            state.setAlphaFalloff(0.5f);
+            state.setBlendMode(RenderState.BlendMode.ALPHA_BLEND);
+            state.setCullMode(RenderState.CullMode.NEVER);
+            material.setShininess(0.25f);
+            material.getDiffuse().set(0.5f, 0.6f, 0.7f, 0.8f);
+        }
+
+        Material atlas = TextureAtlas.pack(List.of(quad(red), quad(blue))).get(0).getMaterial();
+
+        assertNotSame(red, atlas);
+        RenderState state = atlas.getRenderState();
+        assertTrue(state.isAlphaTest());
+        assertEquals(0.5f, state.getAlphaFalloff());
+        assertEquals(RenderState.BlendMode.ALPHA_BLEND, state.getBlendMode());
+        assertEquals(RenderState.CullMode.NEVER, state.getCullMode());
+        assertEquals(0.25f, atlas.getShininess());
+        assertEquals(0.8f, atlas.getDiffuse().w);
+        assertEquals(0.6f, atlas.getDiffuse().y);
+    }
+
+    @Test
+    void leavesSingleTextureGroupsUntouched() {
+        Geometry only = quad(material(0xFF00FF00));
+        assertSame(only, TextureAtlas.pack(List.of(only)).get(0));
+    }
+
+    private static void assertColour(BufferedImage atlas, Geometry geometry, int argb) {
+        for (var vertex : geometry.getMesh().getVertexes()) {
+            // v points up, image rows point down; clamp corner samples half a pixel inwards
+            float x = vertex.texCoord.x * atlas.getWidth();
+            float y = (1 - vertex.texCoord.y) * atlas.getHeight();
+            int px = (int) Math.min(Math.max(x, 0.5f), atlas.getWidth() - 0.5f);
+            int py = (int) Math.min(Math.max(y, 0.5f), atlas.getHeight() - 0.5f);
+            assertEquals(argb, atlas.getRGB(px, py));
+        }
+    }
+
+    private static Material material(int argb) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        Material material = new Material();
+        material.setDiffuseMap(new Texture(image, Integer.toHexString(argb)));
+        return material;
+    }
+
+    private static Geometry quad(Material material) {
+        Vector3f[] positions = {
+                new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(1, 1, 0), new Vector3f(0, 1, 0)};
+        Vector3f[] normals = {
+                new Vector3f(0, 0, 1), new Vector3f(0, 0, 1), new Vector3f(0, 0, 1), new Vector3f(0, 0, 1)};
+        Vector2f[] uvs = {new Vector2f(0, 0), new Vector2f(1, 0), new Vector2f(1, 1), new Vector2f(0, 1)};
+        return new Geometry(new Mesh(positions, new int[]{0, 1, 2, 0, 2, 3}, uvs, normals, null), material);
+    }
+}
@@ -0,0 +1,135 @@
+package team.terrafirmgreg.fieldguide.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MacroExpanderTest {
+
+    private static final List<String> CORPUS = List.of(
+            "",
+            "No macros at all.",
+            "$(list)Hot $(item)iron$() must be worked on an $(l:mechanics/anvils)anvil$(/l)./$",
+            "$(thing)Sticks$(), <br>$(li)one$(li)two<br><br>$(br2)end",
+            "$(li)$(list2)nested /$/$ $(item)$(thing)x/$",
+            "Ore: $(ore)Cassiterite/$ at $(temp)1200 °C/$ — 铁锭$(item)熔点/$",
+            "$(kbd)$(k:key.inventory)$() opens $(gui)Inventory/$",
+            "$$(item)(item)) $(((thing)) /$$() <br<br>>",
+            // overlapping matches: the result depends on which macro the replace loop applies first
+            "/$(list",
+            "$(list)a/$(list)b/$(li)",
+            "Hot/$(item)iron/$(thing)x",
+            "<br/$>$(temp)/$(ore)Cu/$(kbd)");
+
+    private static final Map<String, String> BOOK = book();
+
+    @Test
+    void matchesIterativeExpansionOnBookText() {
+        MacroExpander expander = MacroExpander.compile(BOOK);
+        Map<String, String> merged = TextFormatter.mergeMacros(BOOK);
+        for (String text : CORPUS) {
+            assertEquals(TextFormatter.expandMacrosIteratively(text, merged), expander.expand(text), text);
+        }
+        assertEquals("$(#b0b)iron$()$(#c00)Cu$()", expander.expand("$(item)iron/$$(ore)Cu/$"));
+    }
+
+    @Test
+    void expandsChainsAndFallsBackWhenTooDeep() {
+        Map<String, String> chain = new LinkedHashMap<>();
+        chain.put("$(a)", "<$(b)>");
+        chain.put("$(b)", "[$(c)]");
+        chain.put("$(c)", "ok");
+        assertEquals("<[ok]>", MacroExpander.compile(chain).expand("$(a)"));
+
+        Map<String, String> loop = Map.of("$(x)", "x$(x)");
+        assertEquals(TextFormatter.expandMacrosIteratively("$(x)", TextFormatter.mergeMacros(loop)),
+                MacroExpander.compile(loop).expand("$(x)"));
+    }
+
+    @Test
+    void matchesIterativeExpansionOnRandomText() {
+        // Keys that never overlap each other, where sequential String.replace is order-independent
+        Map<String, String> macros = new LinkedHashMap<>();
+        macros.put("{ab}", "{cd}x");
+        macros.put("{cd}", "y{ef}");
+        macros.put("{ef}", "z");
+        macros.put("#", "{a");
+        MacroExpander expander = MacroExpander.compile(macros);
+        Random random = new Random(11);
+        String alphabet = "{}abcdef#x";
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(24); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = text.toString();
+            assertEquals(TextFormatter.expandMacrosIteratively(input, TextFormatter.mergeMacros(macros)),
+                    expander.expand(input), input);
+        }
+    }
+
+    @Test
+    void matchesIterativeExpansionWithOverlappingKeys() {
+        // "/" starts the only overlapping key and never appears in a value: most texts take the scan
+        Map<String, String> scanned = new LinkedHashMap<>();
+        scanned.put("/$", "$()");
+        scanned.put("$(a)", "$(b)x");
+        scanned.put("$(b)", "y$(");
+        scanned.put("<", "$(a");
+        scanned.put("$()", "");
+        // overlapping keys built from characters the values produce: every text falls back
+        Map<String, String> tangled = new LinkedHashMap<>();
+        tangled.put("ab", "b");
+        tangled.put("ba", "a#");
+        tangled.put("#b", "{");
+        tangled.put("{", "ab");
+        tangled.put("aa", "{x");
+        assertRandomParity(scanned, "/$()ab<xy");
+        assertRandomParity(reversed(scanned), "/$()ab<xy");
+        assertRandomParity(tangled, "ab#{x");
+        assertRandomParity(reversed(tangled), "ab#{x");
+    }
+
+    private static void assertRandomParity(Map<String, String> macros, String alphabet) {
+        MacroExpander expander = MacroExpander.compile(macros);
+        Map<String, String> merged = TextFormatter.mergeMacros(macros);
+        Random random = new Random(23);
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(16); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = text.toString();
+            assertEquals(TextFormatter.expandMacrosIteratively(input, merged), expander.expand(input), input);
+        }
+    }
+
+    private static Map<String, String> reversed(Map<String, String> macros) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(macros.entrySet());
+        Collections.reverse(entries);
+        Map<String, String> reversed = new LinkedHashMap<>();
+        entries.forEach(e -> reversed.put(e.getKey(), e.getValue()));
+        return reversed;
+    }
+
+    private static Map<String, String> book() {
+        Map<String, String> macros = new LinkedHashMap<>();
+        macros.put("$(ore)", "$(#c00)");
+        macros.put("$(temp)", "$(thing)");
+        macros.put("$(kbd)", "$(item)");
+        macros.put("$(gui)", "$(#666)");
+        macros.put("$(br2)", "$(br)$(br)");
+        // chained, and overlapping the defaults and each other
+        macros.put("$(o)", "$(ore)");
+        macros.put("$(ore)x", "$(item)");
+        macros.put("$(t", "$(o)");
+        return macros;
+    }
+}
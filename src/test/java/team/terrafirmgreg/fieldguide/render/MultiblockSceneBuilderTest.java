@@ -0,0 +1,131 @@
+package team.terrafirmgreg.fieldguide.render;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.export.ExportModelLoader;
+import team.terrafirmgreg.fieldguide.render3d.scene.Geometry;
+import team.terrafirmgreg.fieldguide.render3d.scene.Node;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiblockSceneBuilderTest {
+
+    private static final String CUBE = """
+            {
+              "textures": {"all": "%s"},
+              "elements": [{
+                "from": [0, 0, 0],
+                "to": [16, 16, 16],
+                "faces": {
+                  "down":  {"texture": "#all", "cullface": "down"},
+                  "up":    {"texture": "#all", "cullface": "up"},
+                  "north": {"texture": "#all", "cullface": "north"},
+                  "south": {"texture": "#all", "cullface": "south"},
+                  "west":  {"texture": "#all", "cullface": "west"},
+                  "east":  {"texture": "#all", "cullface": "east"}
+                }
+              }]
+            }
+            """;
+
+    @Test
+    void dropsFacesHiddenByOpaqueNeighbours(@TempDir Path root) throws Exception {
+        writeCube(root, "stone", new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB));
+        MultiblockSceneBuilder builder = new MultiblockSceneBuilder(
+                new BlockStateModelBuilder(new ExportModelLoader(root, null)));
+
+        // 2 stones side by side: each loses the face touching the other (6 -> 5 quads)
+        Node scene = builder.buildMultiblock(new String[][]{{"SS"}}, Map.of("S", "minecraft:stone"));
+        assertEquals(2 * 5 * 4, vertexCount(scene));
+
+        // 2x2x2 solid cube: every block keeps only its 3 outward faces
+        Node solid = builder.buildMultiblock(new String[][]{{"SS", "SS"}, {"SS", "SS"}}, Map.of("S", "minecraft:stone"));
+        assertEquals(8 * 3 * 4, vertexCount(solid));
+    }
+
+    @Test
+    void keepsFacesNextToTranslucentBlocks(@TempDir Path root) throws Exception {
+        writeCube(root, "stone", new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB));
+        writeCube(root, "glass", new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB));
+        MultiblockSceneBuilder builder = new MultiblockSceneBuilder(
+                new BlockStateModelBuilder(new ExportModelLoader(root, null)));
+
+        // stone keeps its east face (glass does not occlude); glass loses its west face
+        Node scene = builder.buildMultiblock(new String[][]{{"SG"}},
+                Map.of("S", "minecraft:stone", "G", "minecraft:glass"));
+        assertEquals(6 * 4 + 5 * 4, vertexCount(scene));
+    }
+
+    @Test
+    void scansTextureAlphaForOcclusion(@TempDir Path root) throws Exception {
+        writeCube(root, "stone", new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB));
+        // both textures have an alpha channel; only the leaves actually use it
+        BufferedImage planks = filled(0xFF8B6A3E);
+        BufferedImage leaves = filled(0xFF3A7D22);
+        leaves.setRGB(7, 7, 0x803A7D22);
+        writeCube(root, "oak_planks", planks);
+        writeCube(root, "oak_leaves", leaves);
+        MultiblockSceneBuilder builder = new MultiblockSceneBuilder(
+                new BlockStateModelBuilder(new ExportModelLoader(root, null)));
+
+        // leaves do not occlude stone's east face; stone still hides the leaves' west face
+        Node translucent = builder.buildMultiblock(new String[][]{{"SL"}},
+                Map.of("S", "minecraft:stone", "L", "minecraft:oak_leaves"));
+        assertEquals(6 * 4 + 5 * 4, vertexCount(translucent));
+
+        // a fully opaque ARGB texture still occludes
+        Node opaque = builder.buildMultiblock(new String[][]{{"SP"}},
+                Map.of("S", "minecraft:stone", "P", "minecraft:oak_planks"));
+        assertEquals(2 * 5 * 4, vertexCount(opaque));
+    }
+
+    @Test
+    void recordsAssetsBehindCachedModelsAndMaterials(@TempDir Path root) throws Exception {
+        writeCube(root, "stone", new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB));
+        ExportModelLoader loader = new ExportModelLoader(root, null);
+        MultiblockSceneBuilder builder = new MultiblockSceneBuilder(new BlockStateModelBuilder(loader));
+        builder.buildMultiblock(new String[][]{{"S"}}, Map.of("S", "minecraft:stone"));
+
+        // second build is served by the model and material caches
+        loader.startRecording();
+        builder.buildMultiblock(new String[][]{{"S"}}, Map.of("S", "minecraft:stone"));
+        Set<String> assets = loader.stopRecording();
+        assertTrue(assets.contains("assets/minecraft/models/block/stone.json"), assets.toString());
+        assertTrue(assets.contains("assets/minecraft/textures/block/stone.png"), assets.toString());
+    }
+
+    private static BufferedImage filled(int argb) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static void writeCube(Path root, String name, BufferedImage texture) throws Exception {
+        Path model = root.resolve("assets/minecraft/models/block/" + name + ".json");
+        Files.createDirectories(model.getParent());
+        Files.writeString(model, CUBE.formatted("minecraft:block/" + name));
+
+        Path png = root.resolve("assets/minecraft/textures/block/" + name + ".png");
+        Files.createDirectories(png.getParent());
+        ImageIO.write(texture, "png", png.toFile());
+    }
+
+    private static int vertexCount(Node scene) {
+        int count = 0;
+        for (Geometry geometry : scene.getGeometryList(null)) {
+            count += geometry.getMesh().getVertexes().length;
+        }
+        return count;
+    }
+}
@@ -114,6 +114,12 @@ class TextFormatterTest {
         assertTrue(html("Hello $(playername)").contains("<span class=\"patchouli-playername\">Player</span>"));
     }
 
+    @Test
+    void unclosedCodeAndTrailingSectionSignStayLiteral() {
+        assertEquals("<p>a $(bold b §</p>\n", html("a $(bold b §"));
+        assertEquals("<p><span style=\"color:#55FF55;\">x §\ny</span></p>\n", html("§ax §\ny"));
+    }
+
     private static int countOccurrences(String haystack, String needle) {
         int count = 0;
         int idx = 0;
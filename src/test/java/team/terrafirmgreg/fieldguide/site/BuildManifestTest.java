@@ -0,0 +1,132 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.asset.Asset;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.export.ExportModelLoader;
+import team.terrafirmgreg.fieldguide.export.FsAssetSource;
+import team.terrafirmgreg.fieldguide.export.LangCatalog;
+import team.terrafirmgreg.fieldguide.localization.Language;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildManifestTest {
+
+    private static final String ENTRY_DIR = "assets/tfc/patchouli_books/field_guide/en_us/entries";
+    private static final String TEXTURE = "assets/tfc/textures/block/bloomery.png";
+
+    @Test
+    void reusesEntriesUntilAKeyValueOrAssetChanges(@TempDir Path dir) throws Exception {
+        Path root = export(dir);
+        build(root, dir, List.of("forging"), false);
+
+        Map<String, Boolean> reused = build(root, dir, List.of("forging"), true);
+        assertEquals(Map.of("mechanics/forging", true), reused);
+
+        Files.writeString(root.resolve("lang/en_us.json"), """
+                { "block.tfc.bloomery": "Bloomery Furnace" }
+                """);
+        assertEquals(Map.of("mechanics/forging", false), build(root, dir, List.of("forging"), true));
+        assertEquals(Map.of("mechanics/forging", true), build(root, dir, List.of("forging"), true));
+
+        Files.write(root.resolve(TEXTURE), new byte[]{4, 5, 6});
+        assertEquals(Map.of("mechanics/forging", false), build(root, dir, List.of("forging"), true));
+    }
+
+    @Test
+    void restoresSearchTextAndPrunesRemovedPages(@TempDir Path dir) throws Exception {
+        Path root = export(dir);
+        build(root, dir, List.of("forging", "smelting"), false);
+
+        Book book = book(root, List.of("forging", "smelting"));
+        BuildManifest manifest = open(root, dir, book, true);
+        BookEntry forging = book.getEntries().get(0);
+        assertTrue(manifest.reuse(forging, book.getCategories().get(0)));
+        assertTrue(forging.isUpToDate());
+        assertEquals("Hot iron", forging.getSearchTree().get(0).get("content"));
+
+        // smelting left the book: its page goes, and forging's sidebar changed with it
+        Path smelting = dir.resolve("site/en_us/mechanics/smelting.html");
+        assertTrue(Files.exists(smelting));
+        assertEquals(Map.of("mechanics/forging", false), build(root, dir, List.of("forging"), true));
+        assertFalse(Files.exists(smelting));
+        assertTrue(Files.exists(dir.resolve("site/en_us/mechanics/forging.html")));
+    }
+
+    /** One run: reuses or "renders" (records + writes HTML for) each entry; returns which were reused. */
+    private static Map<String, Boolean> build(Path root, Path dir, List<String> entries, boolean incremental) throws Exception {
+        Book book = book(root, entries);
+        BuildManifest manifest = open(root, dir, book, incremental);
+        BookCategory category = book.getCategories().get(0);
+        Map<String, Boolean> reused = new TreeMap<>();
+        for (BookEntry entry : category.getEntries()) {
+            boolean hit = manifest.reuse(entry, category);
+            reused.put(entry.getId(), hit);
+            if (!hit) {
+                entry.addSearchContent("Hot iron");
+                manifest.record(entry, category, Set.of("block.tfc.bloomery"), Set.of(TEXTURE));
+                Path html = dir.resolve("site/en_us/" + entry.getId() + ".html");
+                Files.createDirectories(html.getParent());
+                Files.writeString(html, "<p>" + entry.getId() + "</p>");
+            }
+        }
+        manifest.save();
+        return reused;
+    }
+
+    private static BuildManifest open(Path root, Path dir, Book book, boolean incremental) {
+        // a new loader and localization per run, as in SiteGenerator: asset hashes are memoized per run
+        ExportLocalizationManager l10n = new ExportLocalizationManager(LangCatalog.load(root), root.resolve("site-lang"));
+        ExportModelLoader models = new ExportModelLoader(root, null);
+        return BuildManifest.open(dir.resolve("manifest"), dir.resolve("site"), book, l10n, models, incremental, "shared");
+    }
+
+    private static Path export(Path dir) throws Exception {
+        Path root = dir.resolve("export");
+        Files.createDirectories(root.resolve("lang"));
+        Files.writeString(root.resolve("lang/en_us.json"), """
+                { "block.tfc.bloomery": "Bloomery" }
+                """);
+        Files.createDirectories(root.resolve("index"));
+        Files.writeString(root.resolve("index/tag-members.json"), "{}");
+        Files.createDirectories(root.resolve(TEXTURE).getParent());
+        Files.write(root.resolve(TEXTURE), new byte[]{1, 2, 3});
+        Files.createDirectories(root.resolve(ENTRY_DIR + "/mechanics"));
+        for (String entry : List.of("forging", "smelting")) {
+            Files.writeString(root.resolve(ENTRY_DIR + "/mechanics/" + entry + ".json"), "{\"name\": \"" + entry + "\"}");
+        }
+        return root;
+    }
+
+    private static Book book(Path root, List<String> entries) {
+        FsAssetSource source = new FsAssetSource(root);
+        BookCategory category = new BookCategory();
+        category.setId("mechanics");
+        category.setName("Mechanics");
+        for (String name : entries) {
+            BookEntry entry = new BookEntry();
+            entry.setAssetSource(ENTRY_DIR, new Asset(ENTRY_DIR + "/mechanics/" + name + ".json", source));
+            entry.setCategoryId("mechanics");
+            entry.setRelId(name);
+            entry.setName(name);
+            category.getEntries().add(entry);
+        }
+        Book book = new Book();
+        book.setName("Field Guide");
+        book.setLandingText("Welcome");
+        book.setLanguage(Language.EN_US);
+        book.getCategories().add(category);
+        book.getEntries().addAll(category.getEntries());
+        return book;
+    }
+}
@@ -0,0 +1,76 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.localization.Language;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildReportTest {
+
+    @Test
+    void reportsPhasesCategoriesAndSlowestEntries(@TempDir Path dir) throws Exception {
+        BuildReport report = new BuildReport(false);
+        BookCategory mechanics = category("mechanics");
+        try (BuildReport.Span ignored = report.measure()) {
+            assertEquals("ok", report.phase("open-export", () -> "ok"));
+            BuildReport.LocaleReport locale = report.locale(Language.EN_US);
+            try (BuildReport.Span entries = locale.phase("render-entries")) {
+                timeEntry(locale, mechanics, entry("mechanics/anvils"), 30);
+                timeEntry(locale, mechanics, entry("mechanics/bloomery"), 1);
+                try (BuildReport.Span page = locale.page("patchouli:text")) {
+                    new StringBuilder().append("x".repeat(1000));
+                }
+                try (BuildReport.Span glb = locale.operation("glb-export")) {
+                    new StringBuilder().append("x".repeat(1000));
+                }
+            }
+        }
+
+        List<BuildReport.EntryTiming> slowest = report.slowestEntries(1);
+        assertEquals("mechanics/anvils", slowest.get(0).id());
+
+        Path file = dir.resolve("reports/build-report.json");
+        report.write(file);
+        JsonObject json = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        assertTrue(json.getAsJsonObject("phases").has("open-export"));
+        JsonObject enUs = json.getAsJsonObject("locales").getAsJsonObject("en_us");
+        assertEquals(1, enUs.getAsJsonObject("pageTypes").getAsJsonObject("patchouli:text").get("count").getAsInt());
+        assertEquals(1, enUs.getAsJsonObject("operations").getAsJsonObject("glb-export").get("count").getAsInt());
+        JsonObject category = enUs.getAsJsonObject("categories").getAsJsonObject("mechanics");
+        assertEquals(2, category.get("count").getAsInt());
+        assertTrue(category.get("wallMs").getAsDouble() >= 30);
+        JsonArray top = json.getAsJsonArray("slowestEntries");
+        assertEquals("mechanics/anvils", top.get(0).getAsJsonObject().get("id").getAsString());
+        assertTrue(json.getAsJsonObject("total").get("wallMs").getAsDouble()
+                >= enUs.getAsJsonObject("phases").getAsJsonObject("render-entries").get("wallMs").getAsDouble());
+    }
+
+    private static void timeEntry(BuildReport.LocaleReport locale, BookCategory category, BookEntry entry, long millis)
+            throws InterruptedException {
+        try (BuildReport.Span ignored = locale.entry(category, entry)) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static BookCategory category(String id) {
+        BookCategory category = new BookCategory();
+        category.setId(id);
+        return category;
+    }
+
+    private static BookEntry entry(String id) {
+        BookEntry entry = new BookEntry();
+        entry.setId(id);
+        return entry;
+    }
+}
@@ -0,0 +1,112 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.data.patchouli.Book;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookPage;
+import team.terrafirmgreg.fieldguide.data.patchouli.page.PageText;
+import team.terrafirmgreg.fieldguide.export.LangCatalog;
+import team.terrafirmgreg.fieldguide.export.TagMemberIndex;
+import team.terrafirmgreg.fieldguide.localization.I18n;
+import team.terrafirmgreg.fieldguide.localization.Language;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferencedLangKeysTest {
+
+    @Test
+    void collectsNamesKeybindsItemsAndTagMembers(@TempDir Path root) throws Exception {
+        Set<String> keys = ReferencedLangKeys.collect(book(), tagMembers(root));
+
+        assertTrue(keys.contains("tfc.book.title"));
+        assertTrue(keys.contains("key.use"));
+        assertTrue(keys.contains("item.tfc.metal.ingot.copper"));
+        assertTrue(keys.contains("block.tfc.bloomery"));
+        assertTrue(keys.contains("item.minecraft.iron_ingot"));
+        assertTrue(keys.contains(I18n.TAG));
+        assertFalse(keys.contains("item.minecraft.diamond"));
+    }
+
+    @Test
+    void prunedTablesStillResolveUnreferencedKeys(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("lang"));
+        Files.writeString(root.resolve("lang/en_us.json"), """
+                { "block.tfc.bloomery": "Bloomery", "item.minecraft.diamond": "Diamond" }
+                """);
+        Files.writeString(root.resolve("lang/zh_cn.json"), """
+                { "block.tfc.bloomery": "锻铁炉", "item.minecraft.diamond": "钻石" }
+                """);
+
+        ExportLocalizationManager l10n = new ExportLocalizationManager(LangCatalog.load(root), root.resolve("site-lang"));
+        l10n.restrictTo(Language.ZH_CN, ReferencedLangKeys.collect(book(), tagMembers(root)));
+        ExportLocalizationManager zh = l10n.forLanguage(Language.ZH_CN);
+        assertEquals("锻铁炉", zh.translate("item.tfc.bloomery", "block.tfc.bloomery"));
+        assertEquals("钻石", zh.translate("item.minecraft.diamond"));
+    }
+
+    @Test
+    void localizedBookKeepsItsOwnExtraItems(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("lang"));
+        Files.writeString(root.resolve("lang/en_us.json"), """
+                { "item.tfc.metal.ingot.tin": "Tin Ingot" }
+                """);
+        Path zhFile = root.resolve("lang/zh_cn.json");
+        Files.writeString(zhFile, """
+                { "item.tfc.metal.ingot.tin": "锡锭" }
+                """);
+        Book zhBook = book();
+        BookPage extra = new BookPage();
+        extra.setJsonObject(JsonParser.parseString("""
+                { "type": "patchouli:spotlight", "item": "tfc:metal/ingot/tin" }
+                """).getAsJsonObject());
+        BookEntry entry = zhBook.getCategories().get(0).getEntries().get(0);
+        entry.setPages(List.of(entry.getPages().get(0), entry.getPages().get(1), extra));
+
+        ExportLocalizationManager l10n = new ExportLocalizationManager(LangCatalog.load(root), root.resolve("site-lang"));
+        l10n.restrictTo(Language.ZH_CN, ReferencedLangKeys.collect(zhBook, tagMembers(root)));
+        ExportLocalizationManager zh = l10n.forLanguage(Language.ZH_CN);
+        // a miss would now reload the full zh table from disk and fall back to EN
+        Files.delete(zhFile);
+        assertEquals("锡锭", zh.translate("item.tfc.metal.ingot.tin"));
+    }
+
+    private static TagMemberIndex tagMembers(Path root) throws Exception {
+        Files.createDirectories(root.resolve("index"));
+        Files.writeString(root.resolve("index/tag-members.json"), """
+                { "items": { "forge:ingots/iron": ["minecraft:iron_ingot"] } }
+                """);
+        return TagMemberIndex.load(root);
+    }
+
+    private static Book book() {
+        PageText text = new PageText();
+        text.setText("Press $(k:key.use) on the $(thing)bloomery$().");
+        BookPage spotlight = new BookPage();
+        JsonObject json = JsonParser.parseString("""
+                { "type": "patchouli:spotlight", "item": "tfc:metal/ingot/copper,#forge:ingots/iron" }
+                """).getAsJsonObject();
+        spotlight.setJsonObject(json);
+
+        BookEntry entry = new BookEntry();
+        entry.setName("Bloomery");
+        entry.setIcon("tfc:bloomery");
+        entry.setPages(List.of(text, spotlight));
+        BookCategory category = new BookCategory();
+        category.setName("Mechanics");
+        category.setDescription("");
+        category.getEntries().add(entry);
+        Book book = new Book();
+        book.setName("tfc.book.title");
+        book.getCategories().add(category);
+        return book;
+    }
+}
@@ -0,0 +1,119 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookCategory;
+import team.terrafirmgreg.fieldguide.data.patchouli.BookEntry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexWriterTest {
+
+    @Test
+    void writesSingleInvertedIndexWithStrippedContent(@TempDir Path dir) throws Exception {
+        new SearchIndexWriter(dir, SearchIndexWriter.Sharding.NONE).write(book());
+
+        JsonObject index = JsonParser.parseString(Files.readString(dir.resolve("search_inverted.json"))).getAsJsonObject();
+        JsonArray records = index.getAsJsonArray("records");
+        assertEquals(3, records.size());
+        JsonArray first = records.get(0).getAsJsonArray();
+        assertEquals("Hot <b>iron</b>", first.get(1).getAsString());
+        JsonArray entry = index.getAsJsonArray("entries").get(first.get(0).getAsInt()).getAsJsonArray();
+        assertEquals("Forging", entry.get(0).getAsString());
+        assertEquals("./mechanics/forging.html", entry.get(1).getAsString());
+        assertEquals(List.of("anvil", "cassiterite", "hot", "iron"), strings(index.getAsJsonArray("tokens")));
+        assertFalse(Files.exists(dir.resolve("search")));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(dir.resolve("search_inverted.json")), files.toList(), "record spools are removed");
+        }
+    }
+
+    @Test
+    void shardsRecordsByCategoryAndTokensByFirstChar(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("search_inverted.json"), "{}");
+        new SearchIndexWriter(dir, SearchIndexWriter.Sharding.CATEGORY).write(book());
+
+        assertFalse(Files.exists(dir.resolve("search_inverted.json")));
+        JsonObject manifest = JsonParser.parseString(
+                Files.readString(dir.resolve("search/manifest.json"))).getAsJsonObject();
+        JsonArray shards = manifest.getAsJsonArray("shards");
+        assertEquals(2, shards.size());
+        JsonObject world = shards.get(1).getAsJsonObject();
+        assertEquals("the_world", world.get("category").getAsString());
+        assertEquals(2, world.get("first").getAsInt());
+        assertEquals(1, world.get("records").getAsInt());
+        JsonArray records = JsonParser.parseString(
+                Files.readString(dir.resolve("search").resolve(world.get("file").getAsString()))).getAsJsonArray();
+        assertEquals("Cassiterite", records.get(0).getAsJsonObject().get("content").getAsString());
+
+        // "cassiterite" is record 2; 'c' % 32 == 3, shared with no other token here
+        assertEquals(InvertedIndexWriter.TOKEN_SHARDS, manifest.get("tokenShards").getAsInt());
+        JsonObject tokens = JsonParser.parseString(
+                Files.readString(dir.resolve("search/tokens-3.json"))).getAsJsonObject();
+        assertEquals(List.of("cassiterite"), strings(tokens.getAsJsonArray("tokens")));
+        assertEquals(2, tokens.getAsJsonArray("postings").get(0).getAsJsonArray().get(0).getAsInt());
+        assertEquals(List.of(), strings(JsonParser.parseString(
+                Files.readString(dir.resolve("search/tokens-0.json"))).getAsJsonObject().getAsJsonArray("tokens")));
+    }
+
+    @Test
+    void streamedEntriesMatchWholeBook(@TempDir Path dir) throws Exception {
+        for (SearchIndexWriter.Sharding sharding : SearchIndexWriter.Sharding.values()) {
+            Path whole = dir.resolve(sharding + "-whole");
+            Path streamed = dir.resolve(sharding + "-streamed");
+            new SearchIndexWriter(whole, sharding).write(book());
+            try (SearchIndexWriter writer = new SearchIndexWriter(streamed, sharding)) {
+                for (BookCategory category : book()) {
+                    writer.beginCategory(category);
+                    for (BookEntry entry : category.getEntries()) {
+                        writer.addEntry(entry);
+                        entry.releaseRendered();
+                    }
+                    writer.endCategory();
+                }
+            }
+            String file = sharding == SearchIndexWriter.Sharding.NONE ? "search_inverted.json" : "search/manifest.json";
+            assertEquals(Files.readString(whole.resolve(file)), Files.readString(streamed.resolve(file)));
+        }
+    }
+
+    private static List<String> strings(JsonArray array) {
+        List<String> out = new ArrayList<>();
+        array.forEach(element -> out.add(element.getAsString()));
+        return out;
+    }
+
+    private static List<BookCategory> book() {
+        BookEntry forging = entry("mechanics", "forging", "Forging");
+        forging.addSearchContent("Hot $(thing)<b>iron</b>");
+        forging.addSearchContent("Anvil");
+        BookEntry ores = entry("the_world", "ores", "Ores");
+        ores.addSearchContent("Cassiterite");
+        return List.of(category("mechanics", forging), category("the_world", ores));
+    }
+
+    private static BookEntry entry(String categoryId, String relId, String name) {
+        BookEntry entry = new BookEntry();
+        entry.setCategoryId(categoryId);
+        entry.setRelId(relId);
+        entry.setName(name);
+        return entry;
+    }
+
+    private static BookCategory category(String id, BookEntry entry) {
+        BookCategory category = new BookCategory();
+        category.setId(id);
+        category.setName(id);
+        category.getEntries().add(entry);
+        return category;
+    }
+}
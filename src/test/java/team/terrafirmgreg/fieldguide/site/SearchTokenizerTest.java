@@ -0,0 +1,26 @@
+package team.terrafirmgreg.fieldguide.site;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Expected tokens must match {@code tokenize()} in {@code static/search.js}. */
+class SearchTokenizerTest {
+
+    @Test
+    void splitsWordsAndDropsSingleCharacters() {
+        assertEquals(List.of("hot", "iron", "ingots", "1x", "iron"), SearchTokenizer.tokenize("Hot iron ingots! 1x Ｉｒｏｎ"));
+        assertEquals(List.of("cd", "42"), SearchTokenizer.tokenize("a b cd 7 42"));
+        assertEquals(List.of("café", "déjà", "vu"), SearchTokenizer.tokenize("Café déjà-vu"));
+    }
+
+    @Test
+    void emitsCjkBigramsPlusRunTail() {
+        assertEquals(List.of("铁锭", "锭是", "是一", "一种", "种金", "金属", "属", "iron", "锭"),
+                SearchTokenizer.tokenize("铁锭是一种金属 Iron锭"));
+        assertEquals(List.of("使用", "用", "铁砧", "砧", "anvil"), SearchTokenizer.tokenize("使用 铁砧(anvil)"));
+        assertEquals(List.of("한국", "국어", "어"), SearchTokenizer.tokenize("한국어"));
+    }
+}